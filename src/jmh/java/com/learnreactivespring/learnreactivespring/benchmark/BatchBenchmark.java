@@ -0,0 +1,79 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.batch.SubRequest;
+import com.learnreactivespring.learnreactivespring.batch.SubResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//One "page" worth of /functional/mono values: N separate requests (sent concurrently) vs one POST /functional/batch.
+//Compare the time per page, and with -prof gc the allocation per page; the server runs in the same JVM so both sides
+//are in the numbers.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class BatchBenchmark {
+
+    @Param({"10", "50"})
+    private int subRequests;
+
+    private BenchmarkServer server;
+    private WebClient webClient;
+    private List<SubRequest> batch;
+
+    @Setup
+    public void startServer() {
+        server = BenchmarkServer.start("learnreactivespring.tracing.default-mode=off");
+        webClient = server.webClient();
+        batch = IntStream.range(0, subRequests)
+                .mapToObj(i -> new SubRequest(String.valueOf(i), "/functional/mono"))
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void stopServer() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<Integer> separateRequests() {
+        return Flux.range(0, subRequests)
+                .flatMap(i -> webClient.get().uri("/functional/mono")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(Integer.class))
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<SubResponse> batch() {
+        return webClient.post().uri("/functional/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .retrieve()
+                .bodyToFlux(SubResponse.class)
+                .collectList()
+                .block();
+    }
+}
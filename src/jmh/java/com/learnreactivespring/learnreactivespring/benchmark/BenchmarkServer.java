@@ -0,0 +1,57 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.LearnreactivespringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+//Starts the whole application on a random port with the real Netty server, so the benchmarks pay for
+//HTTP parsing, routing and encoding the same way a remote client would.
+public class BenchmarkServer implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final int port;
+
+    private BenchmarkServer(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public static BenchmarkServer start(String... properties) {
+        //passed as command line arguments: those win over application.properties, default properties would not.
+        //All the load comes from this one IP, so no rate limit unless the benchmark sets one up itself
+        Stream<String> defaults = Arrays.stream(properties).anyMatch(property -> property.startsWith("learnreactivespring.ratelimit."))
+                ? Stream.of("server.port=0")
+                : Stream.of("server.port=0", "learnreactivespring.ratelimit.enabled=false");
+        String[] args = Stream.concat(defaults, Arrays.stream(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LearnreactivespringApplication.class)
+                .run(args);
+        return new BenchmarkServer(context);
+    }
+
+    public int port() {
+        return port;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    public WebClient webClient() {
+        return WebClient.create(baseUrl());
+    }
+
+    public ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,113 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.JdkZlibEncoder;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+//What compressing a tick stream costs and saves, with the encoder Netty's HttpContentCompressor uses (JdkZlibEncoder,
+//one sync flush per written chunk): NDJSON ticks flushed every "elementsPerFlush" elements, at a few deflate levels.
+//Score is ns per element; "inputBytes"/"outputBytes" are per element, so
+//  CPU per byte = score / inputBytes, and bytes saved per element = inputBytes - outputBytes
+//which is what learnreactivespring.compression.stream.max-elements and server.compression.min-response-size trade.
+//elementsPerFlush=1 is what /fluxinfinitestream did without the grouped flushes.
+//  mvn -Pjmh -DskipTests verify -Djmh.includes=CompressionBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CompressionBenchmark {
+
+    private static final int ELEMENTS = 4_096;
+
+    @Param({"1", "8", "64", "512"})
+    private int elementsPerFlush;
+
+    @Param({"GZIP", "ZLIB"})   //Content-Encoding gzip / deflate
+    private ZlibWrapper wrapper;
+
+    @Param({"1", "6", "9"})    //6 is what HttpContentCompressor uses by default
+    private int level;
+
+    private byte[][] chunks;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        private long input;
+        private long output;
+        private long elements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            input = 0;
+            output = 0;
+            elements = 0;
+        }
+
+        public double inputBytes() {
+            return elements == 0 ? 0 : input / (double) elements;
+        }
+
+        public double outputBytes() {
+            return elements == 0 ? 0 : output / (double) elements;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        //the shared ticker's numbers, as /fluxinfinitestream writes them
+        chunks = new byte[ELEMENTS / elementsPerFlush][];
+        long tick = 1_000_000;
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < elementsPerFlush; i++) {
+                lines.append(tick++).append('\n');
+            }
+            chunks[chunk] = lines.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunks = null;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public void compressStream(Bytes bytes) {
+        EmbeddedChannel channel = new EmbeddedChannel(new JdkZlibEncoder(wrapper, level));
+        for (byte[] chunk : chunks) {
+            channel.writeOutbound(Unpooled.wrappedBuffer(chunk));
+            bytes.input += chunk.length;
+            ByteBuf compressed;
+            while ((compressed = channel.readOutbound()) != null) {
+                bytes.output += compressed.readableBytes();
+                compressed.release();
+            }
+        }
+        channel.finishAndReleaseAll();
+        bytes.elements += ELEMENTS;
+    }
+}
@@ -0,0 +1,81 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Annotated (FluxAndMonoController) vs functional (RouterFunctionConfig) endpoints over a real Netty server.
+//Throughput gives requests/ms, SampleTime gives the p50/p99 latency and "-prof gc" (on by default in the jmh profile)
+//gives the allocation rate, normalised per request as gc.alloc.rate.norm.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class EndpointBenchmark {
+
+    private BenchmarkServer server;
+    private WebClient webClient;
+
+    @Setup
+    public void startServer() {
+        server = BenchmarkServer.start();
+        webClient = server.webClient();
+    }
+
+    @TearDown
+    public void stopServer() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<Integer> flux() {
+        return getList("/flux", MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public Integer mono() {
+        return webClient.get().uri("/mono")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .retrieve()
+                .bodyToMono(Integer.class)
+                .block();
+    }
+
+    @Benchmark
+    public List<Integer> functionalFlux() {
+        return getList("/functional/flux", MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public Integer functionalMono() {
+        return webClient.get().uri("/functional/mono")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(Integer.class)
+                .block();
+    }
+
+    private List<Integer> getList(String uri, MediaType mediaType) {
+        return webClient.get().uri(uri)
+                .accept(mediaType)
+                .retrieve()
+                .bodyToFlux(Integer.class)
+                .collectList()
+                .block();
+    }
+}
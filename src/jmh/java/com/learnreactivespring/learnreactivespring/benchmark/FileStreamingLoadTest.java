@@ -0,0 +1,161 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.learnreactivespring.learnreactivespring.files.FileStreamingProperties;
+import com.learnreactivespring.learnreactivespring.handler.FileHandlerFunction;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Downloads of one big file (in the page cache after the first round) from FileHandlerFunction with sendfile, with
+//memory-mapped chunks, and from a DataBufferUtils.read body (64KB reads into pooled buffers, copied through user space),
+//"clients" concurrent downloads of the whole file in a loop. Prints GB/s, CPU time per GB, the heap allocated per GB
+//(all threads, the client's share is the same in every mode) and the mappings of the file still there at the end.
+//  mvn -Pjmh -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+//      -Dexec.mainClass=com.learnreactivespring.learnreactivespring.benchmark.FileStreamingLoadTest \
+//      -Dexec.args="4 20 256"
+//The client runs in the same JVM (on its own event loops) and only counts the bytes, over loopback. On one core
+//sendfile and the mapped chunks are both ~2.5GB/s at ~375ms CPU per GB, about the client's limit, DataBufferUtils.read
+//is half of that with twice the CPU, and allocates 2.5x the heap (~12MB more per GB, the same ~8MB/GB being the client).
+public class FileStreamingLoadTest {
+
+    //zero-copy again last as a control: far from the first line means the JVM was still warming up
+    private static final String[] MODES = {"zero-copy", "mapped", "read", "zero-copy"};
+
+    public static void main(String[] args) throws IOException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+        int sizeMb = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        //no Spring Boot to configure logback here, and its default is DEBUG for everything
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        Path directory = Files.createTempDirectory("file-streaming");
+        Path file = directory.resolve("blob.bin");
+        write(file, sizeMb);
+        DisposableServer server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes(directory, file))))
+                .bindNow();
+        HttpClient client = HttpClient.create().baseUrl("http://localhost:" + server.port());
+        try {
+            for (String mode : MODES) {
+                run(client, "/" + mode + "/blob.bin", clients, duration.dividedBy(4));    //warmup
+                run(client, "/" + mode + "/blob.bin", clients, duration).print(mode, clients, mappings(file));
+            }
+        } finally {
+            server.disposeNow();
+            Files.delete(file);
+            Files.delete(directory);
+        }
+    }
+
+    private static void write(Path file, int sizeMb) throws IOException {
+        byte[] megabyte = new byte[1024 * 1024];
+        Random random = new Random(42);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                random.nextBytes(megabyte);
+                out.write(megabyte);
+            }
+        }
+    }
+
+    private static RouterFunction<ServerResponse> routes(Path directory, Path file) {
+        FileHandlerFunction zeroCopy = new FileHandlerFunction(properties(directory, true));
+        FileHandlerFunction mapped = new FileHandlerFunction(properties(directory, false));
+        return RouterFunctions.route(RequestPredicates.GET("/zero-copy/{*path}"), zeroCopy::file)
+                .andRoute(RequestPredicates.GET("/mapped/{*path}"), mapped::file)
+                .andRoute(RequestPredicates.GET("/read/{*path}"), request -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .body((message, context) -> message.writeWith(DataBufferUtils.read(file, message.bufferFactory(), 64 * 1024))));
+    }
+
+    private static FileStreamingProperties properties(Path directory, boolean zeroCopy) {
+        FileStreamingProperties properties = new FileStreamingProperties();
+        properties.setDirectory(directory);
+        properties.setZeroCopy(zeroCopy);
+        return properties;
+    }
+
+    //what /proc/self/maps still has of the file: the mapped chunks are unmapped once written, not at the next GC
+    private static long mappings(Path file) throws IOException {
+        Path maps = Path.of("/proc/self/maps");
+        if (!Files.exists(maps)) {
+            return -1;
+        }
+        try (var lines = Files.lines(maps)) {
+            return lines.filter(line -> line.endsWith(file.toString())).count();
+        }
+    }
+
+    private static Result run(HttpClient client, String uri, int clients, Duration duration) {
+        Result result = new Result();
+        long end = System.nanoTime() + duration.toNanos();
+        Flux.range(0, clients)
+                .flatMap(downloader -> client.get().uri(uri)
+                        .responseContent()
+                        .map(ByteBuf::readableBytes)
+                        .reduce(0L, Long::sum)
+                        .doOnNext(result.bytes::addAndGet)
+                        .repeat(() -> System.nanoTime() < end)
+                        .then(), clients)
+                .blockLast();
+        return result.stop();
+    }
+
+    private static final class Result {
+        private final com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final AtomicLong bytes = new AtomicLong();
+        private final long start = System.nanoTime();
+        private final long cpuStart = os.getProcessCpuTime();
+        private final long allocatedStart = allocated();
+        private long elapsed;
+        private long cpu;
+        private long allocatedBytes;
+
+        private long allocated() {
+            long sum = 0;
+            for (long allocatedByThread : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                sum += Math.max(0, allocatedByThread);
+            }
+            return sum;
+        }
+
+        private Result stop() {
+            elapsed = System.nanoTime() - start;
+            cpu = os.getProcessCpuTime() - cpuStart;
+            allocatedBytes = allocated() - allocatedStart;
+            return this;
+        }
+
+        private void print(String mode, int clients, long mappings) {
+            double gigabytes = bytes.get() / 1e9;
+            System.out.printf("%-9s clients=%-3d GB=%-8.2f GB/s=%-6.2f cpu-ms/GB=%-7.1f heap-KB/GB=%-9.1f mappings-left=%d%n",
+                    mode, clients, gigabytes, gigabytes / (elapsed / 1e9), cpu / 1e6 / gigabytes,
+                    allocatedBytes / 1024.0 / gigabytes, mappings);
+        }
+    }
+}
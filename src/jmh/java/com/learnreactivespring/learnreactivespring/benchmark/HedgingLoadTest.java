@@ -0,0 +1,128 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.learnreactivespring.learnreactivespring.outbound.OutboundClient;
+import com.learnreactivespring.learnreactivespring.outbound.OutboundClients;
+import com.learnreactivespring.learnreactivespring.outbound.OutboundProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+//Tail latency of OutboundClient calls to a stub whose latency is independent per request: 90% 2ms, 8% 50ms, 2% 200ms
+//(GC pauses, a slow replica, a cold cache...), closed loop with "clients" concurrent callers, hedging off then on.
+//Prints the percentiles, and the requests the stub got per call (what the hedges cost).
+//  mvn -Pjmh -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+//      -Dexec.mainClass=com.learnreactivespring.learnreactivespring.benchmark.HedgingLoadTest \
+//      -Dexec.args="32 20"
+//The p95 of the stub is 50ms, so with hedging the 50ms and 200ms requests get a second chance after ~50ms: p99 goes
+//from ~200ms to ~50ms for ~10% more requests.
+public class HedgingLoadTest {
+
+    public static void main(String[] args) {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        Duration phase = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+        //no Spring Boot to configure logback here, and its default is DEBUG for everything
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        AtomicLong stubRequests = new AtomicLong();
+        DisposableServer stub = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/latency", (request, response) -> {
+                    stubRequests.incrementAndGet();
+                    return response.sendString(Mono.just("ok").delayElement(latency()));
+                }))
+                .bindNow();
+        try {
+            for (boolean hedging : new boolean[]{false, true}) {
+                OutboundClients outboundClients = outboundClients(stub, hedging);
+                OutboundClient client = outboundClients.client("stub");
+                run(client, clients, phase.dividedBy(4), stubRequests);    //warmup, fills the latency window too
+                run(client, clients, phase, stubRequests).print(hedging, clients);
+                outboundClients.destroy();
+            }
+        } finally {
+            stub.disposeNow();
+        }
+    }
+
+    private static Duration latency() {
+        int percent = ThreadLocalRandom.current().nextInt(100);
+        return Duration.ofMillis(percent < 90 ? 2 : percent < 98 ? 50 : 200);
+    }
+
+    private static OutboundClients outboundClients(DisposableServer stub, boolean hedging) {
+        OutboundProperties properties = new OutboundProperties();
+        OutboundProperties.Service service = new OutboundProperties.Service();
+        service.setBaseUrl("http://localhost:" + stub.port());
+        service.getHedging().setEnabled(hedging);
+        service.getHedging().setWindow(1000);
+        service.getCircuitBreaker().setEnabled(false);
+        properties.getServices().put("stub", service);
+        properties.getPool().setMetrics(false);
+        return new OutboundClients(properties, WebClient.builder(), new TimerSchedulers(new TimerSchedulerProperties()),
+                new StaticListableBeanFactory(Map.of("meterRegistry", new SimpleMeterRegistry())).getBeanProvider(MeterRegistry.class));
+    }
+
+    private static Result run(OutboundClient client, int clients, Duration duration, AtomicLong stubRequests) {
+        Result result = new Result();
+        long requestsBefore = stubRequests.get();
+        long end = System.nanoTime() + duration.toNanos();
+        Flux.range(0, clients)
+                .flatMap(caller -> Mono.defer(() -> call(client, result))
+                        .repeat(() -> System.nanoTime() < end)
+                        .then(), clients)
+                .blockLast();
+        result.stubRequests = stubRequests.get() - requestsBefore;
+        return result;
+    }
+
+    private static Mono<Void> call(OutboundClient client, Result result) {
+        long start = System.nanoTime();
+        return client.get("/latency", String.class)
+                .doOnNext(body -> result.latency.recordValue(Math.max(1, (System.nanoTime() - start) / 1_000)))
+                .onErrorResume(e -> {
+                    result.errors.incrementAndGet();
+                    result.firstError.compareAndSet(null, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static final class Result {
+        private final Histogram latency = new Histogram(3);    //microseconds
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+        private long stubRequests;
+
+        private synchronized void print(boolean hedging, int clients) {
+            long calls = latency.getTotalCount();
+            System.out.printf("hedging=%-5s clients=%-4d calls=%-7d errors=%-4d requests/call=%.3f p50=%.1fms p95=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms%n",
+                    hedging, clients, calls, errors.get(), (double) stubRequests / Math.max(1, calls + errors.get()),
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(95) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getValueAtPercentile(99.9) / 1000.0,
+                    latency.getMaxValue() / 1000.0);
+            if (firstError.get() != null) {
+                System.out.println("  first error: " + firstError.get());
+            }
+        }
+    }
+}
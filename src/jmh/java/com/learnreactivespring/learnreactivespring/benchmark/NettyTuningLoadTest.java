@@ -0,0 +1,112 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Closed loop load on one endpoint (default /functional/flux) with the loadtest profile, once per server knob
+//(learnreactivespring.netty.*, see NettyServerProperties) against the defaults. Prints throughput and p50/p99.
+//  mvn -Pjmh -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+//      -Dexec.mainClass=com.learnreactivespring.learnreactivespring.benchmark.NettyTuningLoadTest \
+//      -Dexec.args="/functional/flux 64 20"
+//The client runs in the same JVM (on its own event loops), compare the setups with each other rather than to
+//numbers taken with a remote load generator.
+public class NettyTuningLoadTest {
+
+    private static final Map<String, String[]> SETUPS = new LinkedHashMap<>();
+
+    static {
+        SETUPS.put("defaults", new String[]{});
+        SETUPS.put("nio", new String[]{"learnreactivespring.netty.event-loop.prefer-native=false"});
+        SETUPS.put("1-worker", new String[]{"learnreactivespring.netty.event-loop.worker-threads=1"});
+        SETUPS.put("2xcores-workers", new String[]{"learnreactivespring.netty.event-loop.worker-threads="
+                + 2 * Runtime.getRuntime().availableProcessors()});
+        SETUPS.put("unpooled", new String[]{"learnreactivespring.netty.allocator=unpooled"});
+        SETUPS.put("no-tcp-nodelay", new String[]{"learnreactivespring.netty.tcp-no-delay=false"});
+        SETUPS.put("h2c-enabled", new String[]{"learnreactivespring.netty.protocols=http11,h2c"});
+        SETUPS.put("keep-alive-100", new String[]{"learnreactivespring.netty.max-keep-alive-requests=100"});
+        //control: far from the first "defaults" line means the JVM was still warming up, give it more seconds
+        SETUPS.put("defaults-again", new String[]{});
+    }
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "/functional/flux";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Integer.parseInt(args[2]) : 20);
+
+        //one unreported round first: the client and the Spring/Reactor code shared by all the setups get compiled by the
+        //JIT here instead of during the first measured setup
+        try (BenchmarkServer server = BenchmarkServer.start("spring.profiles.active=loadtest")) {
+            run(webClient(server, clients), uri, clients, duration);
+        }
+        for (Map.Entry<String, String[]> setup : SETUPS.entrySet()) {
+            String[] properties = new String[setup.getValue().length + 1];
+            properties[0] = "spring.profiles.active=loadtest";
+            System.arraycopy(setup.getValue(), 0, properties, 1, setup.getValue().length);
+            try (BenchmarkServer server = BenchmarkServer.start(properties)) {
+                WebClient webClient = webClient(server, clients);
+                run(webClient, uri, clients, duration.dividedBy(2));    //warmup
+                run(webClient, uri, clients, duration).print(setup.getKey(), duration);
+            }
+        }
+    }
+
+    private static WebClient webClient(BenchmarkServer server, int connections) {
+        ConnectionProvider provider = ConnectionProvider.builder("netty-tuning")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl(server.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+    }
+
+    private static Result run(WebClient webClient, String uri, int clients, Duration duration) {
+        Result result = new Result();
+        long end = System.nanoTime() + duration.toNanos();
+        Flux.range(0, clients)
+                .flatMap(client -> Mono.defer(() -> request(webClient, uri, result))
+                        .repeat(() -> System.nanoTime() < end)
+                        .then(), clients)
+                .blockLast();
+        return result;
+    }
+
+    private static Mono<Void> request(WebClient webClient, String uri, Result result) {
+        long start = System.nanoTime();
+        return webClient.get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()))
+                .doOnNext(status -> result.latency.recordValue(Math.max(1, (System.nanoTime() - start) / 1_000)))
+                .onErrorResume(e -> {
+                    result.errors.incrementAndGet();
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static final class Result {
+        private final Histogram latency = new ConcurrentHistogram(3);  //microseconds
+        private final AtomicLong errors = new AtomicLong();
+
+        private void print(String setup, Duration duration) {
+            System.out.printf("%-16s %9.0f req/s  errors=%-5d p50=%.2fms p99=%.2fms max=%.1fms%n",
+                    setup, latency.getTotalCount() / (double) duration.getSeconds(), errors.get(),
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMaxValue() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.learnreactivespring.learnreactivespring.codec.BinaryMediaTypes;
+import com.learnreactivespring.learnreactivespring.codec.CborNumberEncoder;
+import com.learnreactivespring.learnreactivespring.codec.SmileNumberEncoder;
+import com.learnreactivespring.learnreactivespring.codec.VarintNumberEncoder;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Encoding an Integer stream into pooled Netty buffers, the way the server writes /fluxstream (stream: element by
+//element) and /functional/flux (array: one document), with Jackson (json, jackson-cbor, jackson-smile) and with the
+//hand written encoders of the codec package (cbor, smile, protobuf).
+//Score is ns per element, "bytes" the encoded bytes per element and -prof gc the allocation per element.
+//Jackson's CBOR encoder can not stream, its array case is the encoding of the whole list as one value.
+//  mvn -Pjmh -DskipTests verify -Djmh.includes=NumberEncoderBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class NumberEncoderBenchmark {
+
+    private static final int ELEMENTS = 1_000;
+
+    @Param({"json", "jackson-cbor", "jackson-smile", "cbor", "smile", "protobuf"})
+    private String format;
+
+    @Param({"stream", "array"})
+    private String shape;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final ResolvableType integerType = ResolvableType.forClass(Integer.class);
+    private final List<Integer> values = IntStream.range(0, ELEMENTS).boxed().collect(Collectors.toList());
+
+    private Encoder<Object> encoder;
+    private MimeType mimeType;
+    private boolean encodeAsOneValue;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        private long bytes;
+        private long elements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            elements = 0;
+        }
+
+        public double bytesPerElement() {
+            return elements == 0 ? 0 : bytes / (double) elements;
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        boolean stream = shape.equals("stream");
+        switch (format) {
+            case "json":
+                encoder = (Encoder<Object>) (Encoder<?>) new Jackson2JsonEncoder();
+                mimeType = stream ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+                break;
+            case "jackson-cbor":
+                encoder = (Encoder<Object>) (Encoder<?>) new Jackson2CborEncoder(new ObjectMapper(new CBORFactory()));
+                mimeType = BinaryMediaTypes.CBOR;
+                encodeAsOneValue = !stream;
+                break;
+            case "jackson-smile":
+                encoder = (Encoder<Object>) (Encoder<?>) new Jackson2SmileEncoder(new ObjectMapper(new SmileFactory()));
+                mimeType = stream ? BinaryMediaTypes.SMILE_STREAM : BinaryMediaTypes.SMILE;
+                break;
+            case "cbor":
+                encoder = (Encoder<Object>) (Encoder<?>) new CborNumberEncoder();
+                mimeType = stream ? BinaryMediaTypes.CBOR_STREAM : BinaryMediaTypes.CBOR;
+                break;
+            case "smile":
+                encoder = (Encoder<Object>) (Encoder<?>) new SmileNumberEncoder();
+                mimeType = stream ? BinaryMediaTypes.SMILE_STREAM : BinaryMediaTypes.SMILE;
+                break;
+            default:
+                encoder = (Encoder<Object>) (Encoder<?>) new VarintNumberEncoder();
+                mimeType = BinaryMediaTypes.PROTOBUF;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public void encode(Bytes bytes) {
+        if (encodeAsOneValue) {
+            count(bytes, Flux.just(encoder.encodeValue(values, bufferFactory, ResolvableType.forClass(List.class), mimeType, Collections.emptyMap())));
+        } else if (format.equals("jackson-cbor")) {
+            //no stream encoding, one value per element
+            count(bytes, Flux.fromIterable(values).map(value -> encoder.encodeValue(value, bufferFactory, integerType, mimeType, Collections.emptyMap())));
+        } else {
+            count(bytes, encoder.encode(Flux.fromIterable(values), bufferFactory, integerType, mimeType, Collections.emptyMap()));
+        }
+        bytes.elements += ELEMENTS;
+    }
+
+    private static void count(Bytes bytes, Flux<DataBuffer> dataBuffers) {
+        dataBuffers.doOnNext(dataBuffer -> {
+            bytes.bytes += dataBuffer.readableByteCount();
+            DataBufferUtils.release(dataBuffer);
+        }).blockLast();
+    }
+}
@@ -0,0 +1,101 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Closed loop load on one endpoint, first with "concurrency" clients and then with overload x that many, with the
+//adaptive concurrency limiter on and off. Prints p50/p99 of the accepted requests and how many got a 503.
+//  mvn -Pjmh -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+//      -Dexec.mainClass=com.learnreactivespring.learnreactivespring.benchmark.OverloadTest \
+//      -Dexec.args="/functional/flux 64 5 30"
+//Without the limiter the p99 at 5x grows with the queue, with it the p99 stays near the 1x value and the excess load
+//is turned into fast 503s.
+public class OverloadTest {
+
+    public static void main(String[] args) {
+        String uri = args.length > 0 ? args[0] : "/functional/flux";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int overload = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        Duration phase = Duration.ofSeconds(args.length > 3 ? Integer.parseInt(args[3]) : 30);
+
+        for (boolean limited : new boolean[]{false, true}) {
+            String[] properties = limited
+                    ? new String[]{"learnreactivespring.tracing.default-mode=off",
+                    "learnreactivespring.concurrency.routes[0].path=" + uri,
+                    "learnreactivespring.concurrency.routes[0].initial-limit=" + concurrency}
+                    : new String[]{"learnreactivespring.tracing.default-mode=off",
+                    "learnreactivespring.concurrency.routes[0].path=/not-limited"};
+            try (BenchmarkServer server = BenchmarkServer.start(properties)) {
+                WebClient webClient = webClient(server, concurrency * overload);
+                run(webClient, uri, concurrency, phase.dividedBy(3)).print("warmup", limited, concurrency);
+                run(webClient, uri, concurrency, phase).print("1x", limited, concurrency);
+                run(webClient, uri, concurrency * overload, phase).print(overload + "x", limited, concurrency * overload);
+            }
+        }
+    }
+
+    private static WebClient webClient(BenchmarkServer server, int connections) {
+        ConnectionProvider provider = ConnectionProvider.builder("overload")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl(server.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+    }
+
+    private static Result run(WebClient webClient, String uri, int clients, Duration duration) {
+        Result result = new Result();
+        long end = System.nanoTime() + duration.toNanos();
+        Flux.range(0, clients)
+                .flatMap(client -> Mono.defer(() -> request(webClient, uri, result))
+                        .repeat(() -> System.nanoTime() < end)
+                        .then(), clients)
+                .blockLast();
+        return result;
+    }
+
+    private static Mono<Void> request(WebClient webClient, String uri, Result result) {
+        long start = System.nanoTime();
+        return webClient.get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .doOnNext(status -> {
+                    if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+                        result.rejected.incrementAndGet();
+                    } else {
+                        result.latency.recordValue(Math.max(1, (System.nanoTime() - start) / 1_000));
+                    }
+                })
+                .onErrorResume(e -> {
+                    result.errors.incrementAndGet();
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static final class Result {
+        private final Histogram latency = new Histogram(3);    //microseconds
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        private synchronized void print(String phase, boolean limited, int clients) {
+            System.out.printf("%-7s limiter=%-5s clients=%-5d accepted=%-8d rejected(503)=%-8d errors=%-5d p50=%.1fms p99=%.1fms max=%.1fms%n",
+                    phase, limited, clients, latency.getTotalCount(), rejected.get(), errors.get(),
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMaxValue() / 1000.0);
+        }
+    }
+}
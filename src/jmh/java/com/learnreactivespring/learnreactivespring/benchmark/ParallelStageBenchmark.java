@@ -0,0 +1,75 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.parallel.ParallelStage;
+import com.learnreactivespring.learnreactivespring.parallel.ParallelStageProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+//Throughput of a CPU-bound map over 10k elements, sequential on the calling thread (rails=0) vs ParallelStage with
+//1..8 rails, ordered or not. With N cores the score should grow about linearly up to rails=N and stay flat after;
+//"work" is the cost of one element in Blackhole.consumeCPU tokens (~1us per 200-300 tokens).
+//The difference between ordered and unordered is the reordering, where one slow element holds back the others.
+//  mvn -Pjmh -DskipTests verify -Djmh.includes=ParallelStageBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParallelStageBenchmark {
+
+    private static final int ELEMENTS = 10_000;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int rails;
+
+    @Param({"true", "false"})
+    private boolean ordered;
+
+    @Param({"1000", "10000"})
+    private long work;
+
+    private ParallelStage parallelStage;
+
+    @Setup
+    public void setUp() {
+        ParallelStageProperties properties = new ParallelStageProperties();
+        properties.setRails(Math.max(1, rails));
+        parallelStage = new ParallelStage(properties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelStage.destroy();
+    }
+
+    private Long transform(Integer element) {
+        Blackhole.consumeCPU(work);
+        return element * 31L;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public Long map() {
+        Flux<Integer> elements = Flux.range(0, ELEMENTS);
+        if (rails == 0) {
+            return elements.map(this::transform).blockLast();
+        }
+        return elements.transform(parallelStage.map(this::transform, ordered)).blockLast();
+    }
+}
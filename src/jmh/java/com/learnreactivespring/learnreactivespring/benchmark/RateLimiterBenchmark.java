@@ -0,0 +1,55 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.ratelimit.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//64 threads taking tokens from TokenBucketRateLimiter at the same time:
+//  keys=1        every thread on the same bucket -> the worst case for the CAS loop
+//  keys=64       a hot key per tenant, the usual case
+//  keys=1000000  a million clients -> mostly map lookups, the map has to hold all of them (see the gc profiler)
+//Refill is fast enough that most requests are accepted, otherwise the rejections would only measure a failed compare.
+//  mvn -Pjmh -DskipTests verify -Djmh.includes=RateLimiterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(64)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "64", "1000000"})
+    private int keys;
+
+    private String[] keyNames;
+    private TokenBucketRateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "ip:10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+        }
+        limiter = new TokenBucketRateLimiter(1000, 100_000_000, keys);
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        String key = keyNames[ThreadLocalRandom.current().nextInt(keys)];
+        return limiter.tryAcquire(key, System.nanoTime());
+    }
+}
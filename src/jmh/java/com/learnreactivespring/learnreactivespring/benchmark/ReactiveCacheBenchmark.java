@@ -0,0 +1,69 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.cache.ReactiveCache;
+import com.learnreactivespring.learnreactivespring.cache.ReactiveCacheManager;
+import com.learnreactivespring.learnreactivespring.cache.ReactiveCacheProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Latency of a lookup which costs ~1ms (a remote call) with and without the read-through cache, at a 90% hit ratio:
+//9 out of 10 reads go to a warmed up hot set, 1 out of 10 asks for a key which was never seen before.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class ReactiveCacheBenchmark {
+
+    private static final int HOT_KEYS = 1_000;
+    private static final Duration LOOKUP_LATENCY = Duration.ofMillis(1);
+
+    private final AtomicLong coldKeys = new AtomicLong(HOT_KEYS);
+    private ReactiveCache<Long, Long> cache;
+
+    @Setup
+    public void setUp() {
+        ReactiveCacheProperties properties = new ReactiveCacheProperties();
+        properties.getDefaults().setMaximumSize(1_000_000);
+        cache = new ReactiveCacheManager(properties).getCache("benchmark");
+        for (long key = 0; key < HOT_KEYS; key++) {
+            cache.get(key, ReactiveCacheBenchmark::lookup).block();
+        }
+    }
+
+    private long nextKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.nextInt(10) == 0 ? coldKeys.incrementAndGet() : random.nextInt(HOT_KEYS);
+    }
+
+    private static Mono<Long> lookup(long key) {
+        return Mono.delay(LOOKUP_LATENCY).thenReturn(key);
+    }
+
+    @Benchmark
+    public Long uncached() {
+        return lookup(nextKey()).block();
+    }
+
+    @Benchmark
+    public Long cached90PercentHits() {
+        return cache.get(nextKey(), ReactiveCacheBenchmark::lookup).block();
+    }
+}
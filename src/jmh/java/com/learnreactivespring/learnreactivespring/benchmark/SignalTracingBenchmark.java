@@ -0,0 +1,58 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Requests per second on /functional/flux with the signal tracing off, sampled and full (the old .log() behaviour).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class SignalTracingBenchmark {
+
+    @Param({"off", "sampled", "full"})
+    public String mode;
+
+    private BenchmarkServer server;
+    private WebClient webClient;
+
+    @Setup
+    public void startServer() {
+        server = BenchmarkServer.start("learnreactivespring.tracing.endpoints.functional-flux=" + mode);
+        webClient = server.webClient();
+    }
+
+    @TearDown
+    public void stopServer() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<Integer> functionalFlux() {
+        return webClient.get().uri("/functional/flux")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(Integer.class)
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,134 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.LearnreactivespringApplication;
+import com.learnreactivespring.learnreactivespring.startup.FastStartupInitializer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//Cold starts of the application in fresh JVMs: time from launching the JVM to the first 200 on /functional/mono,
+//and the resident set size once it has been idle for a while. Default setup, the fast-startup profile, and the
+//fast-startup profile with the AppCDS archive recorded by the build, "runs" times each, median and min printed.
+//The archive and the exact classpath it was recorded with come from the fast-startup Maven profile:
+//  mvn -Pfast-startup -DskipTests package
+//  mvn -Pjmh -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+//      -Dexec.mainClass=com.learnreactivespring.learnreactivespring.benchmark.StartupTest -Dexec.args="10 5"
+//args: runs per setup, idle seconds before reading the RSS (Linux only, /proc/<pid>/status)
+public class StartupTest {
+
+    private static final Path STARTUP_DIR = Paths.get("target", "startup");
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Duration idle = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : 5);
+
+        Path classpathFile = STARTUP_DIR.resolve("classpath.txt");
+        Path archive = STARTUP_DIR.resolve("app-cds.jsa");
+        if (!Files.exists(classpathFile)) {
+            System.err.println(classpathFile + " is missing, run `mvn -Pfast-startup -DskipTests package` first");
+            return;
+        }
+        //the very same classpath the archive was recorded with, or the JVM ignores the archive
+        Path jar;
+        try (Stream<Path> files = Files.list(STARTUP_DIR)) {
+            jar = files.filter(file -> file.toString().endsWith("-startup.jar")).findFirst().orElseThrow();
+        }
+        String classpath = jar.toAbsolutePath() + File.pathSeparator + Files.readString(classpathFile).trim();
+        String profile = "--spring.profiles.active=" + FastStartupInitializer.PROFILE;
+
+        run("default", runs, idle, classpath, List.of(), List.of());
+        run("fast-startup", runs, idle, classpath, List.of(), List.of(profile));
+        if (Files.exists(archive)) {
+            run("fast-startup+appcds", runs, idle, classpath, List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto"), List.of(profile));
+        } else {
+            System.err.println(archive + " is missing, skipping the AppCDS runs");
+        }
+    }
+
+    private static void run(String setup, int runs, Duration idle, String classpath,
+                            List<String> jvmArgs, List<String> appArgs) throws Exception {
+        List<Long> firstOkMillis = new ArrayList<>();
+        List<Long> rssKb = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            int port = freePort();
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmArgs);
+            command.addAll(Arrays.asList("-cp", classpath, LearnreactivespringApplication.class.getName(),
+                    "--server.port=" + port, "--learnreactivespring.rsocket.tcp.port=0",
+                    "--learnreactivespring.tracing.default-mode=off"));
+            command.addAll(appArgs);
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            try {
+                firstOkMillis.add(waitForFirstOk(port, process, start));
+                Thread.sleep(idle.toMillis());
+                rssKb.add(rssKb(process.pid()));
+            } finally {
+                process.destroy();
+                process.waitFor(10, TimeUnit.SECONDS);
+            }
+        }
+        System.out.printf("%-20s first 200 median %5d ms min %5d ms   idle RSS median %6d KB min %6d KB%n",
+                setup, median(firstOkMillis), Collections.min(firstOkMillis), median(rssKb), Collections.min(rssKb));
+    }
+
+    private static long waitForFirstOk(int port, Process process, long start) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/functional/mono"))
+                .header("Accept", "application/json")
+                .build();
+        while (process.isAlive()) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (IOException notListeningYet) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("the application exited with " + process.exitValue() + " before answering");
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Paths.get("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("[^0-9]", "")))
+                .findFirst()
+                .orElse(-1L);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetricsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Cost of the stream instrumentation on its own, no HTTP around it: one subscription to a 100 element Flux
+//(the shape of /functional/flux, a bit longer) with the metrics off, on, and on with Reactor's per operator timings.
+//Runs with 8 threads, so the counters and the gauge are contended like they are under peak load.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class StreamMetricsBenchmark {
+
+    @Param({"off", "on", "operator-timings"})
+    public String metrics;
+
+    private final Flux<Integer> source = Flux.range(0, 100);
+    private Flux<Integer> instrumented;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(meterRegistry);  //Reactor's .metrics() records into the global registry
+
+        StreamMetricsProperties properties = new StreamMetricsProperties();
+        properties.setEnabled(!metrics.equals("off"));
+        properties.setOperatorTimings(metrics.equals("operator-timings"));
+        StreamMetrics streamMetrics = new StreamMetrics(
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+                properties);
+
+        instrumented = source.transform(streamMetrics.flux("benchmark"));
+    }
+
+    @Benchmark
+    public Integer subscription() {
+        return instrumented.blockLast();
+    }
+}
@@ -0,0 +1,71 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Holds a large number of /fluxinfinitestream subscribers open and prints CPU and heap every reporting interval.
+//Not a JMH benchmark (the interesting number is the steady state, not the time per operation):
+//  mvn -Pjmh -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+//      -Dexec.mainClass=com.learnreactivespring.learnreactivespring.benchmark.TickerLoadTest -Dexec.args="10000 60"
+//Client and server share the JVM, so the numbers are an upper bound for the server alone. Raise "ulimit -n" first.
+public class TickerLoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        try (BenchmarkServer server = BenchmarkServer.start("learnreactivespring.tracing.endpoints.fluxinfinitestream=off")) {
+            ConnectionProvider connections = ConnectionProvider.builder("ticker-load")
+                    .maxConnections(subscribers)
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            WebClient webClient = WebClient.builder()
+                    .baseUrl(server.baseUrl())
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .build();
+
+            AtomicLong received = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            List<Disposable> streams = new ArrayList<>(subscribers);
+            for (int i = 0; i < subscribers; i++) {
+                streams.add(webClient.get().uri("/fluxinfinitestream")
+                        .accept(MediaType.APPLICATION_STREAM_JSON)
+                        .retrieve()
+                        .bodyToFlux(Long.class)
+                        .subscribe(tick -> received.incrementAndGet(), error -> errors.incrementAndGet()));
+            }
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            com.sun.management.OperatingSystemMXBean os =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            long reportEveryMillis = Duration.ofSeconds(5).toMillis();
+            long previous = 0;
+            for (long elapsed = 0; elapsed < seconds * 1000L; elapsed += reportEveryMillis) {
+                Thread.sleep(reportEveryMillis);
+                long now = received.get();
+                System.out.printf("subscribers=%d ticks/s=%.0f errors=%d processCpu=%.1f%% heapUsed=%dMB threads=%d%n",
+                        subscribers,
+                        (now - previous) * 1000.0 / reportEveryMillis,
+                        errors.get(),
+                        os.getProcessCpuLoad() * 100,
+                        memory.getHeapMemoryUsage().getUsed() / (1024 * 1024),
+                        ManagementFactory.getThreadMXBean().getThreadCount());
+                previous = now;
+            }
+
+            streams.forEach(Disposable::dispose);
+            connections.dispose();
+        }
+    }
+}
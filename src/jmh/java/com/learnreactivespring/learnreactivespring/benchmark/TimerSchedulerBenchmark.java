@@ -0,0 +1,98 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//50k streams like /flux (4 elements, delayElements) running at the same time on each timer strategy.
+//One invocation subscribes all of them and waits for the last one to complete, so the score minus the 4 x 50ms of
+//delays is the timer overhead; "lateMillis" is how late the elements were on average compared to their deadline.
+//  mvn -Pjmh -DskipTests verify -Djmh.includes=TimerSchedulerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class TimerSchedulerBenchmark {
+
+    private static final int SUBSCRIPTIONS = 50_000;
+    private static final Duration DELAY = Duration.ofMillis(50);
+
+    @Param({"PARALLEL", "BOUNDED_ELASTIC", "HASHED_WHEEL", "VIRTUAL_THREADS"})
+    private TimerStrategy strategy;
+
+    private TimerSchedulers timerSchedulers;
+    private Scheduler timer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lateness {
+        private final AtomicLong totalLateNanos = new AtomicLong();
+        private final AtomicLong elements = new AtomicLong();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            totalLateNanos.set(0);
+            elements.set(0);
+        }
+
+        public double lateMillis() {
+            return elements.get() == 0 ? 0 : totalLateNanos.get() / (double) elements.get() / 1_000_000;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        TimerSchedulerProperties properties = new TimerSchedulerProperties();
+        properties.setTimer(strategy);
+        timerSchedulers = new TimerSchedulers(properties);
+        timer = timerSchedulers.timer();
+    }
+
+    @TearDown
+    public void tearDown() {
+        timerSchedulers.destroy();
+    }
+
+    @Benchmark
+    public void delayedStreams(Lateness lateness) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(SUBSCRIPTIONS);
+        long delayNanos = DELAY.toNanos();
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            long start = System.nanoTime();
+            Flux.just(1, 2, 3, 4)
+                    .delayElements(DELAY, timer)
+                    .doOnNext(element -> {
+                        lateness.totalLateNanos.addAndGet(System.nanoTime() - start - element * delayNanos);
+                        lateness.elements.incrementAndGet();
+                    })
+                    .doFinally(signal -> done.countDown())
+                    .subscribe();
+        }
+        if (!done.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(done.getCount() + " streams did not complete");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//The same publishers over HTTP and over RSocket (TCP and WebSocket) on loopback, with one long lived connection each.
+//Throughput is messages/ms, SampleTime the latency percentiles of a request-response / one short stream, and
+//*Ticks the cost per message of a long stream (the shared ticker runs at 10k ticks/s, so 100us/op means the
+//transport keeps up).
+//  mvn -Pjmh -DskipTests verify -Djmh.includes=TransportBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class TransportBenchmark {
+
+    private static final int TICKS = 1_000;
+
+    private BenchmarkServer server;
+    private WebClient webClient;
+    private RSocketRequester tcp;
+    private RSocketRequester webSocket;
+
+    @Setup
+    public void startServer() {
+        server = BenchmarkServer.start(
+                "learnreactivespring.tracing.default-mode=off",
+                "learnreactivespring.rsocket.tcp.port=0",
+                "learnreactivespring.ticker.period=100us");
+        webClient = server.webClient();
+        RSocketRequester.Builder builder = server.context().getBean(RSocketRequester.Builder.class);
+        int tcpPort = server.context().getBean(Environment.class).getRequiredProperty("local.rsocket.server.port", Integer.class);
+        tcp = builder.tcp("localhost", tcpPort);
+        webSocket = builder.websocket(URI.create("ws://localhost:" + server.port() + "/rsocket"));
+    }
+
+    @TearDown
+    public void stopServer() {
+        tcp.rsocketClient().dispose();
+        webSocket.rsocketClient().dispose();
+        server.close();
+    }
+
+    @Benchmark
+    public Integer httpMono() {
+        return webClient.get().uri("/mono")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .retrieve()
+                .bodyToMono(Integer.class)
+                .block();
+    }
+
+    @Benchmark
+    public Integer rsocketTcpMono() {
+        return tcp.route("mono").retrieveMono(Integer.class).block();
+    }
+
+    @Benchmark
+    public Integer rsocketWebSocketMono() {
+        return webSocket.route("mono").retrieveMono(Integer.class).block();
+    }
+
+    @Benchmark
+    public List<Integer> httpFunctionalFlux() {
+        return webClient.get().uri("/functional/flux")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(Integer.class)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<Integer> rsocketTcpFunctionalFlux() {
+        return tcp.route("functional-flux").retrieveFlux(Integer.class).collectList().block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public Long httpTicks() {
+        return webClient.get().uri("/fluxinfinitestream")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .retrieve()
+                .bodyToFlux(Long.class)
+                .take(TICKS)
+                .blockLast();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public Long rsocketTcpTicks() {
+        return tcp.route("fluxinfinitestream").retrieveFlux(Long.class).take(TICKS).blockLast();
+    }
+}
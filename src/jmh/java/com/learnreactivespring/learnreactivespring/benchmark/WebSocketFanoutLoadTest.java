@@ -0,0 +1,103 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.stream.SharedTicker;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.Disposable;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Opens "sessions" WebSocket sessions on /ws/ticks, then measures for "seconds" how long a tick takes from the shared
+//ticker to every session (broadcast latency), and what each open session costs in heap and Netty direct memory.
+//  mvn -Pjmh -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+//      -Dexec.mainClass=com.learnreactivespring.learnreactivespring.benchmark.WebSocketFanoutLoadTest \
+//      -Dexec.args="8000 100 20"
+//args: sessions, tick period in ms, seconds measured.
+//Client and server run in this JVM: every session is two sockets, so tens of thousands of sessions need
+//`ulimit -n` above twice that, and the memory per session is the client and the server side together.
+//The sessions are spread over 127.0.0.1-4 so they do not run out of ephemeral ports.
+public class WebSocketFanoutLoadTest {
+
+    private static final int TICK_SLOTS = 1 << 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 8_000;
+        int periodMillis = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Duration measured = Duration.ofSeconds(args.length > 2 ? Integer.parseInt(args[2]) : 20);
+
+        try (BenchmarkServer server = BenchmarkServer.start("spring.profiles.active=loadtest",
+                "learnreactivespring.ticker.period=" + periodMillis + "ms")) {
+            //when every tick left the ticker, seen from a subscriber of its own next to the fan-out
+            AtomicLongArray emittedNanos = new AtomicLongArray(TICK_SLOTS);
+            Disposable emitted = server.context().getBean(SharedTicker.class).sequencedTicks()
+                    .subscribe(tick -> emittedNanos.set((int) (tick % TICK_SLOTS), System.nanoTime()));
+
+            Histogram latency = new ConcurrentHistogram(3);    //microseconds
+            AtomicLong received = new AtomicLong();
+            AtomicInteger connected = new AtomicInteger();
+            AtomicInteger closed = new AtomicInteger();
+            ReactorNettyWebSocketClient client = new ReactorNettyWebSocketClient(
+                    HttpClient.create(ConnectionProvider.newConnection()));
+
+            long memoryBefore = usedMemory();
+            List<Disposable> clients = new ArrayList<>(sessions);
+            long connectStart = System.nanoTime();
+            for (int i = 0; i < sessions; i++) {
+                URI uri = URI.create("ws://127.0.0." + (1 + i % 4) + ":" + server.port() + "/ws/ticks");
+                clients.add(client.execute(uri, session -> {
+                    connected.incrementAndGet();
+                    return session.receive()
+                            .doOnNext(message -> {
+                                long tick = Long.parseLong(message.getPayloadAsText());
+                                long now = System.nanoTime();
+                                received.incrementAndGet();
+                                latency.recordValue(Math.max(1, (now - emittedNanos.get((int) (tick % TICK_SLOTS))) / 1_000));
+                            })
+                            .then();
+                }).doFinally(signal -> closed.incrementAndGet()).subscribe(null, error -> { }));
+                while (i - connected.get() - closed.get() > 500) {  //at most 500 handshakes in flight
+                    Thread.sleep(1);
+                }
+            }
+            while (connected.get() + closed.get() < sessions) {
+                Thread.sleep(10);
+            }
+            System.out.printf("%d sessions connected in %d ms, %d failed%n", connected.get(),
+                    Duration.ofNanos(System.nanoTime() - connectStart).toMillis(), closed.get());
+
+            Thread.sleep(2_000);
+            long memoryPerSession = (usedMemory() - memoryBefore) / Math.max(1, connected.get());
+            latency.reset();
+            received.set(0);
+            Thread.sleep(measured.toMillis());
+
+            long ticks = measured.toMillis() / periodMillis;
+            System.out.printf("memory per session (client + server, heap + direct) %d bytes%n", memoryPerSession);
+            System.out.printf("frames received %d of ~%d, broadcast latency p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                    received.get(), ticks * connected.get(),
+                    latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0);
+
+            clients.forEach(Disposable::dispose);
+            emitted.dispose();
+        }
+    }
+
+    private static long usedMemory() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed() + PooledByteBufAllocator.DEFAULT.metric().usedDirectMemory();
+    }
+}
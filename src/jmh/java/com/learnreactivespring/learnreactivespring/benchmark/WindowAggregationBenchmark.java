@@ -0,0 +1,81 @@
+package com.learnreactivespring.learnreactivespring.benchmark;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import com.learnreactivespring.learnreactivespring.stream.WindowAggregator;
+import com.learnreactivespring.learnreactivespring.stream.WindowSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Summaries of count windows over 100k ticks, WindowAggregator (primitive accumulators, one LogHistogram per window)
+//against the naive buffer(size).map(summarize the list) which keeps every element of the window in a list and sorts
+//a copy for the percentiles. With -prof gc, gc.alloc.rate.norm is the allocation per element, the boxed Longs of the
+//source are created once in setUp so they are not part of it.
+//  mvn -Pjmh -DskipTests verify -Djmh.includes=WindowAggregationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WindowAggregationBenchmark {
+
+    private static final int ELEMENTS = 100_000;
+
+    @Param({"100", "10000"})
+    private int windowSize;
+
+    private Long[] ticks;
+    private WindowAggregator windowAggregator;
+
+    @Setup
+    public void setUp() {
+        ticks = new Long[ELEMENTS];
+        for (int i = 0; i < ELEMENTS; i++) {
+            ticks[i] = (long) i * 7919 % 100_000;    //not sorted already
+        }
+        windowAggregator = new WindowAggregator(new TimerSchedulers(new TimerSchedulerProperties()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public WindowSummary accumulators() {
+        return windowAggregator.aggregate(Flux.fromArray(ticks), windowSize, null).blockLast();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public WindowSummary bufferedLists() {
+        return Flux.fromArray(ticks)
+                .buffer(windowSize)
+                .map(WindowAggregationBenchmark::summarize)
+                .blockLast();
+    }
+
+    private static WindowSummary summarize(List<Long> window) {
+        long sum = window.stream().mapToLong(Long::longValue).sum();
+        Long[] sorted = window.toArray(new Long[0]);
+        Arrays.sort(sorted);
+        return new WindowSummary(sorted.length, sum, sorted[0], sorted[sorted.length - 1], (double) sum / sorted.length,
+                percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99));
+    }
+
+    private static Long percentile(Long[] sorted, double percentile) {
+        return sorted[(int) Math.max(0, Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
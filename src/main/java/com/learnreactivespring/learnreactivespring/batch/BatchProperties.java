@@ -0,0 +1,15 @@
+package com.learnreactivespring.learnreactivespring.batch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.batch")
+public class BatchProperties {
+
+    //sub-requests of one batch running at the same time
+    private int maxConcurrency = 16;
+
+    //bigger batches are rejected with 400
+    private int maxSubRequests = 100;
+}
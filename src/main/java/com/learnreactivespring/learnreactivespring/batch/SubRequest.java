@@ -0,0 +1,15 @@
+package com.learnreactivespring.learnreactivespring.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One entry of a POST /functional/batch body, e.g. {"id":"a","path":"/functional/mono"}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubRequest {
+
+    private String id;      //chosen by the client, echoed in the matching SubResponse
+    private String path;
+}
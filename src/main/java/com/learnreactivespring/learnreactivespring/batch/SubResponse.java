@@ -0,0 +1,27 @@
+package com.learnreactivespring.learnreactivespring.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One NDJSON line of the batch response, in the order the sub-requests complete
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SubResponse {
+
+    private String id;
+    private int status;
+    private Object body;
+    private String error;
+
+    public static SubResponse ok(String id, Object body) {
+        return new SubResponse(id, 200, body, null);
+    }
+
+    public static SubResponse error(String id, int status, String error) {
+        return new SubResponse(id, status, null, error);
+    }
+}
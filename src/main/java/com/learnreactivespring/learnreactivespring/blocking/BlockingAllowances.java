@@ -0,0 +1,19 @@
+package com.learnreactivespring.learnreactivespring.blocking;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+//The blocking calls accepted on non-blocking threads, picked up by BlockHound through
+//META-INF/services/reactor.blockhound.integration.BlockHoundIntegration, at runtime (BlockingCallDetector) as well as
+//in the -Pblockhound test runs. Reactor's and Spring's own integrations come the same way.
+//The callback is set here too, so it is BlockingCallDetector's whichever of the two installs BlockHound first.
+public class BlockingAllowances implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        //logback appenders write synchronously (SignalTracing logs from the pipelines), put an AsyncAppender in front
+        //of them when that matters
+        builder.allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes");
+        builder.blockingMethodCallback(BlockingCallDetector::onBlockingMethod);
+    }
+}
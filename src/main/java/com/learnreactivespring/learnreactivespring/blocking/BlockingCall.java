@@ -0,0 +1,35 @@
+package com.learnreactivespring.learnreactivespring.blocking;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+//One distinct blocking call site seen by BlockingCallDetector, as shown by /actuator/blocking
+@Getter
+public class BlockingCall {
+
+    private final String method;
+    private final String thread;        //where it was seen first
+    private final Instant firstSeen;
+    private final List<String> stackTrace;
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong count = new AtomicLong();
+
+    BlockingCall(String method, String thread, List<String> stackTrace) {
+        this.method = method;
+        this.thread = thread;
+        this.firstSeen = Instant.now();
+        this.stackTrace = stackTrace;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    void seenAgain() {
+        count.incrementAndGet();
+    }
+}
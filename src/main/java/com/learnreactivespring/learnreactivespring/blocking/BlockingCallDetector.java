@@ -0,0 +1,134 @@
+package com.learnreactivespring.learnreactivespring.blocking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingMethod;
+import reactor.blockhound.BlockingOperationError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+//Opt-in (learnreactivespring.blocking.enabled) BlockHound: every blocking JDK call (sleep, socket/file IO, lock waits...)
+//made on a Reactor non-blocking thread - the Netty event loops, Schedulers.parallel() - is recorded with its stack
+//trace, so a Thread.sleep or a .block() which sneaked into a handler shows up on /actuator/blocking instead of as a
+//bad p99. With fail-on-blocking the call also throws BlockingOperationError, like BlockHound does by default.
+//The allowed exceptions are in BlockingAllowances, found by BlockHound through META-INF/services.
+@Slf4j
+@Component
+@EnableConfigurationProperties(BlockingDetectionProperties.class)
+public class BlockingCallDetector implements DisposableBean {
+
+    //BlockHound instruments the JDK once per JVM and keeps the callback it was installed with, so the callback goes
+    //through here to the detector of the latest application context (the tests start several)
+    private static volatile BlockingCallDetector current;
+    private static volatile boolean installed;
+    //-Pblockhound: blockhound-junit-platform installs BlockHound before any context, so install() below is a no-op
+    //there. The callback still comes from BlockingAllowances (every installation loads it), and without an enabled
+    //detector it fails the call the way that listener is meant to.
+    private static final boolean FAIL_WITHOUT_DETECTOR = ClassUtils.isPresent(
+            "reactor.blockhound.junit.platform.BlockHoundTestExecutionListener", BlockingCallDetector.class.getClassLoader());
+
+    private final BlockingDetectionProperties properties;
+    private final Map<String, BlockingCall> calls = new ConcurrentHashMap<>();
+    private final Counter blockingCalls;   //null when disabled, nothing is counted then
+
+    public BlockingCallDetector(BlockingDetectionProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.blockingCalls = !properties.isEnabled() ? null : Counter.builder("learnreactivespring.blocking.calls")
+                .description("Blocking calls made on non-blocking threads")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        if (properties.isEnabled()) {
+            current = this;
+            install();
+        }
+    }
+
+    private static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        try {
+            BlockHound.install();   //the callback is set by BlockingAllowances, whoever installs BlockHound first
+            installed = true;
+        } catch (RuntimeException | LinkageError e) {
+            //most likely JDK 13+ without -XX:+AllowRedefinitionToAddDeleteMethods, the stall probes still work
+            log.warn("Could not install BlockHound, blocking calls are not detected: {}", e.toString());
+        }
+    }
+
+    static void onBlockingMethod(BlockingMethod method) {
+        BlockingCallDetector detector = current;
+        if (detector != null) {
+            detector.onBlockingCall(method);
+        } else if (FAIL_WITHOUT_DETECTOR) {
+            throw new BlockingOperationError(method);
+        }
+    }
+
+    private void onBlockingCall(BlockingMethod method) {
+        blockingCalls.increment();
+        //the frames of the instrumented JDK method and of BlockHound itself are the same for every call, skipped
+        StackTraceElement[] frames = new Throwable().getStackTrace();
+        String blockingClass = method.getClassName().replace('/', '.');
+        List<String> stackTrace = Arrays.stream(frames)
+                .dropWhile(frame -> !frame.getClassName().equals(blockingClass))
+                .map(StackTraceElement::toString)
+                .collect(Collectors.toList());
+        if (stackTrace.isEmpty()) {
+            stackTrace = Arrays.stream(frames).map(StackTraceElement::toString).collect(Collectors.toList());
+        }
+        String site = method + "\n" + String.join("\n", stackTrace);
+        BlockingCall call = calls.get(site);
+        if (call == null && calls.size() < properties.getMaxReports()) {
+            BlockingCall seen = new BlockingCall(method.toString(), Thread.currentThread().getName(), stackTrace);
+            call = calls.putIfAbsent(site, seen);
+            if (call == null) {
+                call = seen;
+                log.warn("Blocking call {} on {}\n\tat {}", method, seen.getThread(), String.join("\n\tat ", stackTrace));
+            }
+        }
+        if (call != null) {
+            call.seenAgain();
+        }
+        if (properties.isFailOnBlocking()) {
+            throw new BlockingOperationError(method);
+        }
+    }
+
+    public boolean isInstalled() {
+        return installed && current == this;
+    }
+
+    public Collection<BlockingCall> calls() {
+        return new ArrayList<>(calls.values());
+    }
+
+    public long totalCalls() {
+        return blockingCalls == null ? 0 : (long) blockingCalls.count();
+    }
+
+    public void reset() {
+        calls.clear();
+    }
+
+    //BlockHound stays installed, the calls are just not recorded anymore
+    @Override
+    public void destroy() {
+        if (current == this) {
+            current = null;
+        }
+    }
+}
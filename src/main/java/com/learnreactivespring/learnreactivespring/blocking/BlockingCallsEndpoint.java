@@ -0,0 +1,64 @@
+package com.learnreactivespring.learnreactivespring.blocking;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+//GET /actuator/blocking: the blocking calls seen on non-blocking threads (most frequent first, with their stack traces)
+//and the event loop stalls. DELETE forgets the calls and the longest stall seen so far, e.g. after fixing one.
+@Component
+@Endpoint(id = "blocking")
+public class BlockingCallsEndpoint {
+
+    private final BlockingCallDetector detector;
+    private final EventLoopStallProbe stallProbe;
+
+    public BlockingCallsEndpoint(BlockingCallDetector detector, EventLoopStallProbe stallProbe) {
+        this.detector = detector;
+        this.stallProbe = stallProbe;
+    }
+
+    @ReadOperation
+    public Map<String, Object> blocking() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("installed", detector.isInstalled());
+        report.put("totalCalls", detector.totalCalls());
+        report.put("calls", detector.calls().stream()
+                .sorted(Comparator.comparingLong(BlockingCall::getCount).reversed())
+                .collect(Collectors.toList()));
+        Map<String, Object> stalls = stallProbe.stalls()
+                .map(timer -> stalls(timer.takeSnapshot()))
+                .orElseGet(LinkedHashMap::new);    //probes off
+        stalls.put("longestMillis", stallProbe.maxStall().toNanos() / 1_000_000.0);
+        report.put("stalls", stalls);
+        return report;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        detector.reset();
+        stallProbe.reset();
+    }
+
+    private static Map<String, Object> stalls(HistogramSnapshot snapshot) {
+        Map<String, Object> stalls = new LinkedHashMap<>();
+        stalls.put("probes", snapshot.count());
+        stalls.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));     //of the last couple of minutes
+        stalls.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            String name = BigDecimal.valueOf(percentile.percentile() * 100).stripTrailingZeros().toPlainString();  //p50, p99.9
+            stalls.put("p" + name + "Millis", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return stalls;
+    }
+}
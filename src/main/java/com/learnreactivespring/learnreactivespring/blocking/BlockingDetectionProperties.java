@@ -0,0 +1,26 @@
+package com.learnreactivespring.learnreactivespring.blocking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.blocking")
+public class BlockingDetectionProperties {
+
+    //installs BlockHound and the event loop probes, needs -XX:+AllowRedefinitionToAddDeleteMethods on JDK 13+
+    private boolean enabled = false;
+
+    //true -> the blocking call throws BlockingOperationError (the request fails), false -> only recorded
+    private boolean failOnBlocking = false;
+
+    //distinct stack traces kept for /actuator/blocking, the calls after that are only counted
+    private int maxReports = 100;
+
+    //how often every event loop runs the probe task, how late it runs is the stall
+    private Duration probeInterval = Duration.ofMillis(10);
+
+    //stalls longer than that are logged with the event loop thread
+    private Duration stallThreshold = Duration.ofMillis(50);
+}
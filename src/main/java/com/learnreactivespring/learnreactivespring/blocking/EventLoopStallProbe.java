@@ -0,0 +1,102 @@
+package com.learnreactivespring.learnreactivespring.blocking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Measures how long the HTTP event loops are stuck (learnreactivespring.blocking.enabled): every loop runs a probe task
+//each probe-interval, and how late the task runs is how long the loop was busy with something else - a blocking call,
+//or simply too much work. The delays go to the learnreactivespring.eventloop.stall histogram (and /actuator/blocking).
+//The loops are probed from the first connection on, whatever LoopResources the server runs on (see NettyServerTuning).
+@Slf4j
+@Component
+public class EventLoopStallProbe implements NettyServerCustomizer, DisposableBean {
+
+    private final BlockingDetectionProperties properties;
+    private final Timer stalls;    //null when disabled, no meter for probes which never run
+    private final Set<EventLoopGroup> probed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong maxStallNanos = new AtomicLong();    //since the start or reset(), the Timer's max decays
+    private volatile boolean running = true;
+
+    public EventLoopStallProbe(BlockingDetectionProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.stalls = !properties.isEnabled() ? null : Timer.builder("learnreactivespring.eventloop.stall")
+                .description("How late the probe task ran on the HTTP event loops")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Override
+    public HttpServer apply(HttpServer httpServer) {
+        if (!properties.isEnabled()) {
+            return httpServer;
+        }
+        return httpServer.doOnChannelInit((observer, channel, remoteAddress) -> {
+            //every loop of the group, not only the ones which already got a connection
+            EventLoopGroup eventLoops = channel.eventLoop().parent();
+            if (probed.add(eventLoops)) {
+                for (EventExecutor eventLoop : eventLoops) {
+                    schedule(eventLoop, properties.getProbeInterval().toNanos());
+                }
+            }
+        });
+    }
+
+    private void schedule(EventExecutor eventLoop, long intervalNanos) {
+        long expectedNanos = System.nanoTime() + intervalNanos;
+        try {
+            eventLoop.schedule(() -> probe(eventLoop, expectedNanos, intervalNanos), intervalNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            //shutting down
+        }
+    }
+
+    private void probe(EventExecutor eventLoop, long expectedNanos, long intervalNanos) {
+        if (!running) {
+            return;
+        }
+        long stallNanos = Math.max(0, System.nanoTime() - expectedNanos);
+        stalls.record(stallNanos, TimeUnit.NANOSECONDS);
+        maxStallNanos.accumulateAndGet(stallNanos, Math::max);
+        if (stallNanos >= properties.getStallThreshold().toNanos()) {
+            log.warn("Event loop {} was stalled for {} ms", Thread.currentThread().getName(), TimeUnit.NANOSECONDS.toMillis(stallNanos));
+        }
+        schedule(eventLoop, intervalNanos);
+    }
+
+    public Optional<Timer> stalls() {
+        return Optional.ofNullable(stalls);
+    }
+
+    public Duration maxStall() {
+        return Duration.ofNanos(maxStallNanos.get());
+    }
+
+    public void reset() {
+        maxStallNanos.set(0);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+    }
+}
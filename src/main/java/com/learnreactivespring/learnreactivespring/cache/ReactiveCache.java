@@ -0,0 +1,44 @@
+package com.learnreactivespring.learnreactivespring.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+//Read-through cache of Mono values on top of a Caffeine AsyncCache.
+//Caffeine keeps the *future* of a value, so while a value is being loaded every other get() for the same key waits on
+//that same future -> N concurrent misses for a popular key cause one load, not N (no thundering herd).
+//Size bound with W-TinyLFU eviction and the TTL are handled by Caffeine, errors and empty Monos are never cached.
+public class ReactiveCache<K, V> {
+
+    private final String name;
+    private final AsyncCache<K, V> cache;
+
+    ReactiveCache(String name, AsyncCache<K, V> cache) {
+        this.name = name;
+        this.cache = cache;
+    }
+
+    public Mono<V> get(K key, Function<? super K, ? extends Mono<? extends V>> loader) {
+        //defer -> nothing is looked up before subscription, like any other cold Mono
+        return Mono.defer(() -> Mono.fromFuture(
+                cache.get(key, (k, executor) -> loader.apply(k).toFuture().thenApply(Function.identity()))));
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
@@ -0,0 +1,56 @@
+package com.learnreactivespring.learnreactivespring.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Creates the named caches from learnreactivespring.cache.* and keeps them, so their counters can be exposed.
+@Component
+@EnableConfigurationProperties(ReactiveCacheProperties.class)
+public class ReactiveCacheManager {
+
+    private final ReactiveCacheProperties properties;
+    private final Map<String, ReactiveCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public ReactiveCacheManager(ReactiveCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> ReactiveCache<K, V> getCache(String name) {
+        return (ReactiveCache<K, V>) caches.computeIfAbsent(name, this::createCache);
+    }
+
+    private ReactiveCache<Object, Object> createCache(String name) {
+        ReactiveCacheProperties.Spec spec = properties.getCaches().getOrDefault(name, properties.getDefaults());
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .recordStats();
+        if (!spec.getTtl().isZero()) {
+            builder.expireAfterWrite(spec.getTtl());
+        }
+        return new ReactiveCache<>(name, builder.buildAsync());
+    }
+
+    //hit/miss/eviction counters of every cache, by name
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats cacheStats = cache.stats();
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("size", cache.size());
+            counters.put("hitCount", cacheStats.hitCount());
+            counters.put("missCount", cacheStats.missCount());
+            counters.put("hitRate", cacheStats.hitRate());
+            counters.put("evictionCount", cacheStats.evictionCount());
+            counters.put("loadFailureCount", cacheStats.loadFailureCount());
+            stats.put(name, counters);
+        });
+        return stats;
+    }
+}
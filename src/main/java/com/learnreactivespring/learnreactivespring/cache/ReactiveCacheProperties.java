@@ -0,0 +1,26 @@
+package com.learnreactivespring.learnreactivespring.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.cache")
+public class ReactiveCacheProperties {
+
+    //used by every cache which has no entry in caches
+    private Spec defaults = new Spec();
+
+    //per cache override, e.g. learnreactivespring.cache.caches.functional-mono.ttl=5m
+    private Map<String, Spec> caches = new HashMap<>();
+
+    @Data
+    public static class Spec {
+        private long maximumSize = 10_000;
+        //0 -> entries only leave when the cache is full
+        private Duration ttl = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//Registers the binary number encoders with WebFlux (server and Boot's WebClient.Builder). Custom typed codecs come
+//before Jackson's, so for Integer/Long these win over the Jackson Smile encoder as well; they only take explicit binary
+//types (see NumberEncoder.canEncode), anything else still goes to Jackson.
+@Configuration
+public class BinaryCodecsConfig {
+
+    @Bean
+    public CodecCustomizer binaryNumberCodecs() {
+        return configurer -> {
+            configurer.customCodecs().register(new CborNumberEncoder());
+            configurer.customCodecs().register(new SmileNumberEncoder());
+            configurer.customCodecs().register(new VarintNumberEncoder());
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Binary encodings of the numeric streams, next to JSON. The *_STREAM types are written and flushed element by element
+//(like application/stream+json), the others are one document holding an array.
+public final class BinaryMediaTypes {
+
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    //RFC 8742, concatenated CBOR items
+    public static final String CBOR_STREAM_VALUE = "application/cbor-seq";
+    public static final MediaType CBOR_STREAM = MediaType.valueOf(CBOR_STREAM_VALUE);
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    //the name Spring's own Jackson Smile encoder uses for streams
+    public static final String SMILE_STREAM_VALUE = "application/stream+x-jackson-smile";
+    public static final MediaType SMILE_STREAM = MediaType.valueOf(SMILE_STREAM_VALUE);
+
+    //length delimited messages { sint64 value = 1; }, readable with parseDelimitedFrom, a stream either way
+    public static final String PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType PROTOBUF = MediaType.valueOf(PROTOBUF_VALUE);
+
+    public static final List<MediaType> DOCUMENT_TYPES = List.of(CBOR, SMILE, PROTOBUF);
+    public static final List<MediaType> STREAM_TYPES = List.of(CBOR_STREAM, SMILE_STREAM, PROTOBUF);
+
+    private BinaryMediaTypes() {
+    }
+
+    //the first of the offered types the client accepts, in the order of its Accept header (quality, specificity)
+    public static MediaType negotiate(List<MediaType> accept, List<MediaType> offered) {
+        List<MediaType> sorted = new ArrayList<>(accept);
+        MediaType.sortBySpecificityAndQuality(sorted);
+        for (MediaType accepted : sorted) {
+            for (MediaType mediaType : offered) {
+                if (accepted.isCompatibleWith(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        return offered.get(0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+//CBOR (RFC 8949) integers: major type 0 (unsigned) or 1 (negative, -1 - n) with the shortest argument, so 0..23
+//is a single byte. Arrays are indefinite length (0x9F ... 0xFF) and can be written before the element count is known.
+public class CborNumberEncoder extends NumberEncoder {
+
+    private static final int UNSIGNED = 0x00;
+    private static final int NEGATIVE = 0x20;
+
+    public CborNumberEncoder() {
+        super(BinaryMediaTypes.CBOR, BinaryMediaTypes.CBOR_STREAM);
+    }
+
+    @Override
+    protected int maxEncodedSize() {
+        return 9;
+    }
+
+    @Override
+    protected void writeValue(long value, DataBuffer dataBuffer) {
+        if (value >= 0) {
+            writeHead(UNSIGNED, value, dataBuffer);
+        } else {
+            writeHead(NEGATIVE, -1 - value, dataBuffer);
+        }
+    }
+
+    private static void writeHead(int majorType, long argument, DataBuffer dataBuffer) {
+        if (argument < 24) {
+            dataBuffer.write((byte) (majorType | argument));
+        } else if (argument < 0x100) {
+            dataBuffer.write((byte) (majorType | 24));
+            dataBuffer.write((byte) argument);
+        } else if (argument < 0x10000) {
+            dataBuffer.write((byte) (majorType | 25));
+            writeBigEndian(argument, 2, dataBuffer);
+        } else if (argument < 0x100000000L) {
+            dataBuffer.write((byte) (majorType | 26));
+            writeBigEndian(argument, 4, dataBuffer);
+        } else {
+            dataBuffer.write((byte) (majorType | 27));
+            writeBigEndian(argument, 8, dataBuffer);
+        }
+    }
+
+    private static void writeBigEndian(long value, int bytes, DataBuffer dataBuffer) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            dataBuffer.write((byte) (value >>> shift));
+        }
+    }
+
+    @Override
+    protected void writeStartArray(DataBuffer dataBuffer) {
+        dataBuffer.write((byte) 0x9F);
+    }
+
+    @Override
+    protected void writeEndArray(DataBuffer dataBuffer) {
+        dataBuffer.write((byte) 0xFF);
+    }
+}
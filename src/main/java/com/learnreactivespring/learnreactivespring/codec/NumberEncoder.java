@@ -0,0 +1,122 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+//Base of the binary encoders for Integer/Long/Short/Byte streams. Every value is written straight into a DataBuffer
+//from the factory of the response (pooled Netty buffers on the server), byte by byte: no ObjectMapper, no generator,
+//no intermediate byte[] to copy from.
+//A Mono is one value, a Flux is either one array document (documentType) or a sequence of values written and flushed
+//one by one (streamType).
+public abstract class NumberEncoder implements HttpMessageEncoder<Number> {
+
+    private static final int CHUNK = 128;
+    private static final List<Class<?>> INTEGRAL_TYPES = List.of(Integer.class, Long.class, Short.class, Byte.class);
+
+    private final MediaType documentType;
+    private final MediaType streamType;
+
+    protected NumberEncoder(MediaType documentType, MediaType streamType) {
+        this.documentType = documentType;
+        this.streamType = streamType;
+    }
+
+    //only for an explicit binary type: these come before Jackson, so answering for no type (WebClient bodies, the
+    //producible types of a controller) or a wildcard (*/*, browsers) would turn the default into CBOR instead of JSON.
+    //Controllers offer the binary types through produces, handler functions by negotiating the content type.
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        Class<?> clazz = elementType.toClass();
+        return INTEGRAL_TYPES.contains(clazz) && mimeType != null && mimeType.isConcrete()
+                && (documentType.isCompatibleWith(mimeType) || streamType.isCompatibleWith(mimeType));
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return documentType.equals(streamType) ? List.of(documentType) : List.of(documentType, streamType);
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return List.of(streamType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends Number> input, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (input instanceof Mono) {
+            return Mono.from(input).map(value -> encodeValue(value, bufferFactory, true)).flux();
+        }
+        if (isStream(mimeType)) {
+            return Flux.from(input).index((index, value) -> encodeValue(value, bufferFactory, index == 0));
+        }
+        //nothing is flushed inside a document, so up to CHUNK values share one buffer (one pooled allocation)
+        return Flux.concat(Mono.fromSupplier(() -> startArray(bufferFactory)),
+                Flux.from(input).buffer(CHUNK).map(chunk -> encodeChunk(chunk, bufferFactory)),
+                Mono.fromSupplier(() -> endArray(bufferFactory)));
+    }
+
+    //a format without arrays (documentType == streamType) is always a stream
+    private boolean isStream(MimeType mimeType) {
+        return documentType.equals(streamType) || streamType.isCompatibleWith(mimeType);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Number value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        return encodeValue(value, bufferFactory, true);
+    }
+
+    //first -> the value starts a document, formats with a header (Smile) write it in front
+    private DataBuffer encodeValue(Number value, DataBufferFactory bufferFactory, boolean first) {
+        DataBuffer dataBuffer = bufferFactory.allocateBuffer(maxEncodedSize());
+        if (first) {
+            writeHeader(dataBuffer);
+        }
+        writeValue(value.longValue(), dataBuffer);
+        return dataBuffer;
+    }
+
+    private DataBuffer encodeChunk(List<? extends Number> chunk, DataBufferFactory bufferFactory) {
+        DataBuffer dataBuffer = bufferFactory.allocateBuffer(chunk.size() * maxEncodedSize());
+        for (Number value : chunk) {
+            writeValue(value.longValue(), dataBuffer);
+        }
+        return dataBuffer;
+    }
+
+    private DataBuffer startArray(DataBufferFactory bufferFactory) {
+        DataBuffer dataBuffer = bufferFactory.allocateBuffer(maxEncodedSize());
+        writeHeader(dataBuffer);
+        writeStartArray(dataBuffer);
+        return dataBuffer;
+    }
+
+    private DataBuffer endArray(DataBufferFactory bufferFactory) {
+        DataBuffer dataBuffer = bufferFactory.allocateBuffer(1);
+        writeEndArray(dataBuffer);
+        return dataBuffer;
+    }
+
+    //upper bound of header + one value, what is allocated per element
+    protected abstract int maxEncodedSize();
+
+    protected void writeHeader(DataBuffer dataBuffer) {
+    }
+
+    protected abstract void writeValue(long value, DataBuffer dataBuffer);
+
+    protected abstract void writeStartArray(DataBuffer dataBuffer);
+
+    protected abstract void writeEndArray(DataBuffer dataBuffer);
+}
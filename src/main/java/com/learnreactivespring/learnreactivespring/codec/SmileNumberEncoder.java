@@ -0,0 +1,69 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+//Smile (Jackson's binary JSON) integers, byte for byte what Jackson's SmileGenerator writes: -16..15 in one byte,
+//anything else a 32/64 bit token followed by the zigzag value in 7 bit groups (the last group holds 6 bits and has
+//the high bit set). Every document starts with the ":)\n" header.
+public class SmileNumberEncoder extends NumberEncoder {
+
+    private static final byte[] HEADER = {':', ')', '\n', 0x00};    //version 0, no shared names or values
+    private static final int SMALL_INT = 0xC0;
+    private static final int INT_32 = 0x24;
+    private static final int INT_64 = 0x25;
+
+    public SmileNumberEncoder() {
+        super(BinaryMediaTypes.SMILE, BinaryMediaTypes.SMILE_STREAM);
+    }
+
+    @Override
+    protected int maxEncodedSize() {
+        return HEADER.length + 1 + 10;
+    }
+
+    @Override
+    protected void writeHeader(DataBuffer dataBuffer) {
+        dataBuffer.write(HEADER);
+    }
+
+    @Override
+    protected void writeValue(long value, DataBuffer dataBuffer) {
+        if (value >= -16 && value <= 15) {
+            dataBuffer.write((byte) (SMALL_INT + zigzag(value)));
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            dataBuffer.write((byte) INT_32);
+            int intValue = (int) value;
+            writeVInt(((intValue << 1) ^ (intValue >> 31)) & 0xFFFFFFFFL, dataBuffer);  //zigzag over 32 bits like Jackson
+        } else {
+            dataBuffer.write((byte) INT_64);
+            writeVInt(zigzag(value), dataBuffer);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    //unsigned value, most significant group first
+    private static void writeVInt(long value, DataBuffer dataBuffer) {
+        long rest = value >>> 6;
+        int groups = 0;
+        for (long v = rest; v != 0; v >>>= 7) {
+            groups++;
+        }
+        for (int group = groups - 1; group >= 0; group--) {
+            dataBuffer.write((byte) ((rest >>> (group * 7)) & 0x7F));
+        }
+        dataBuffer.write((byte) (0x80 | (value & 0x3F)));
+    }
+
+    @Override
+    protected void writeStartArray(DataBuffer dataBuffer) {
+        dataBuffer.write((byte) 0xF8);
+    }
+
+    @Override
+    protected void writeEndArray(DataBuffer dataBuffer) {
+        dataBuffer.write((byte) 0xF9);
+    }
+}
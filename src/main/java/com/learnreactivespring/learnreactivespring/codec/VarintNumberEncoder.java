@@ -0,0 +1,51 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+//Protocol buffers wire format without the protobuf runtime: every value is a length delimited message
+//  message Value { sint64 value = 1; }
+//i.e. <varint length> 0x08 <zigzag varint>, so 0..63 and -64..-1 take 3 bytes in total. Clients read the stream with
+//Value.parseDelimitedFrom(in) in a loop.
+public class VarintNumberEncoder extends NumberEncoder {
+
+    private static final int FIELD_1_VARINT = (1 << 3) | 0;
+
+    public VarintNumberEncoder() {
+        super(BinaryMediaTypes.PROTOBUF, BinaryMediaTypes.PROTOBUF);
+    }
+
+    @Override
+    protected int maxEncodedSize() {
+        return 1 + 1 + 10;
+    }
+
+    @Override
+    protected void writeValue(long value, DataBuffer dataBuffer) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        dataBuffer.write((byte) (1 + varintSize(zigzag)));  //the message is at most 11 bytes, its length one byte
+        dataBuffer.write((byte) FIELD_1_VARINT);
+        while ((zigzag & ~0x7FL) != 0) {
+            dataBuffer.write((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        dataBuffer.write((byte) zigzag);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    //no arrays in protobuf, the delimited messages are the stream
+    @Override
+    protected void writeStartArray(DataBuffer dataBuffer) {
+    }
+
+    @Override
+    protected void writeEndArray(DataBuffer dataBuffer) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.learnreactivespring.learnreactivespring.compression;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.function.BiPredicate;
+
+//Responses which offer byte ranges (Accept-Ranges, /functional/files) are never compressed, whatever their type: the
+//Content-Range and Content-Length of a 206 are about the bytes of the file, not of a gzip stream, and a compressed
+//response would also lose sendfile. Added to the server.compression.* predicate Boot installs (its customizer runs
+//before the NettyServerCustomizer beans), nothing happens with compression off.
+@Component
+public class ByteRangeCompressionExclusion implements NettyServerCustomizer {
+
+    @Override
+    public HttpServer apply(HttpServer httpServer) {
+        BiPredicate<HttpServerRequest, HttpServerResponse> compressed = httpServer.configuration().compressPredicate();
+        if (compressed == null) {
+            return httpServer;
+        }
+        return httpServer.compress(compressed.and((request, response) ->
+                !response.responseHeaders().contains(HttpHeaders.ACCEPT_RANGES)));
+    }
+}
@@ -0,0 +1,146 @@
+package com.learnreactivespring.learnreactivespring.compression;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import com.learnreactivespring.learnreactivespring.stream.FrameCoalescer;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.concurrent.Queues;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//Netty compresses every flushed chunk on its own (gzip/deflate, negotiated per request from Accept-Encoding, see
+//server.compression.*), so a stream flushed element by element (/fluxstream, /fluxinfinitestream) compresses badly.
+//For the responses which get compressed, the flushes of a stream are grouped: the pending elements are joined into
+//one buffer (no copy) and flushed together, every maxElements elements or maxDelay after the first pending one.
+//Responses which are written in one go (writeWith) are left alone, Netty only skips the small ones of those
+//(server.compression.min-response-size applies to responses with a Content-Length, /mono for example), and so are the
+//streams which FrameCoalescer already packs into batches (/functional/fluxstream...): grouping those again would only
+//add this filter's delay on top of the coalescing window.
+@Component
+@EnableConfigurationProperties(CompressedStreamProperties.class)
+public class CompressedStreamFlushFilter implements WebFilter {
+
+    private final CompressedStreamProperties properties;
+    private final Scheduler timer;
+    private final List<MimeType> compressedMimeTypes;   //empty -> compression is off, nothing to do
+
+    public CompressedStreamFlushFilter(CompressedStreamProperties properties, ObjectProvider<ServerProperties> serverProperties,
+                                       TimerSchedulers timerSchedulers) {
+        this.properties = properties;
+        this.timer = timerSchedulers.timer();
+        Compression compression = serverProperties.getIfAvailable(ServerProperties::new).getCompression();
+        this.compressedMimeTypes = properties.isEnabled() && compression.getEnabled()
+                ? Arrays.stream(compression.getMimeTypes()).map(MimeTypeUtils::parseMimeType).collect(Collectors.toList())
+                : List.of();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (compressedMimeTypes.isEmpty() || !acceptsCompression(exchange.getRequest().getHeaders())) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        return chain.filter(exchange.mutate()
+                .response(response instanceof ZeroCopyHttpOutputMessage
+                        ? new ZeroCopyGroupedFlushResponse(response, exchange) : new GroupedFlushResponse(response, exchange))
+                .build());
+    }
+
+    private static boolean acceptsCompression(HttpHeaders headers) {
+        return acceptsCompression(headers.getFirst(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    //gzip or deflate with a q-value above 0, named or through * (RFC 7231 5.3.4): "gzip;q=0" refuses gzip, and
+    //"x-gzip-foo" is another coding altogether
+    static boolean acceptsCompression(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Map<String, Float> qualities = new HashMap<>();
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            float quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Float.parseFloat(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;    //unreadable -> not acceptable, rather than compressing for a client which said no
+                    }
+                }
+            }
+            qualities.put(parts[0].trim().toLowerCase(Locale.ROOT), quality);
+        }
+        float any = qualities.getOrDefault("*", 0f);
+        return qualities.getOrDefault("gzip", any) > 0 || qualities.getOrDefault("deflate", any) > 0;
+    }
+
+    private boolean isCompressed(MediaType contentType) {
+        return contentType != null && compressedMimeTypes.stream().anyMatch(mimeType -> mimeType.isCompatibleWith(contentType));
+    }
+
+    private class GroupedFlushResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        private GroupedFlushResponse(ServerHttpResponse delegate, ServerWebExchange exchange) {
+            super(delegate);
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!isCompressed(getHeaders().getContentType()) || exchange.getAttribute(FrameCoalescer.COALESCED_ATTRIBUTE) != null) {
+                return super.writeAndFlushWith(body);
+            }
+            Flux<Mono<DataBuffer>> grouped = Flux.from(body)
+                    .concatMap(Flux::from)
+                    .bufferTimeout(properties.getMaxElements(), properties.getMaxDelay(), timer)
+                    //the writer requests one group at a time, and a group closed by the timer while that request is
+                    //still being written would overflow bufferTimeout: keep demand queued, as FrameCoalescer's publish does
+                    .limitRate(Queues.SMALL_BUFFER_SIZE)
+                    .map(buffers -> Mono.just(bufferFactory().join(buffers)))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);  //pending buffers of a cancelled stream
+            return super.writeAndFlushWith(grouped);
+        }
+    }
+
+    //the decorator must not hide sendfile from the handlers which use it (/functional/files)
+    private final class ZeroCopyGroupedFlushResponse extends GroupedFlushResponse implements ZeroCopyHttpOutputMessage {
+
+        private ZeroCopyGroupedFlushResponse(ServerHttpResponse delegate, ServerWebExchange exchange) {
+            super(delegate, exchange);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Path file, long position, long count) {
+            return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(file, position, count);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.learnreactivespring.learnreactivespring.compression;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//Flush policy of streams which are compressed (server.compression.* and an Accept-Encoding from the client).
+//Every flush ends a deflate block (sync flush, ~5 bytes of overhead and a reset of the block), flushing element by
+//element would make a stream of small elements bigger, not smaller.
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.compression.stream")
+public class CompressedStreamProperties {
+
+    private boolean enabled = true;
+
+    //a flush as soon as maxElements written elements are pending...
+    private int maxElements = 64;
+
+    //...or maxDelay after the first of them, whatever comes first
+    private Duration maxDelay = Duration.ofMillis(100);
+}
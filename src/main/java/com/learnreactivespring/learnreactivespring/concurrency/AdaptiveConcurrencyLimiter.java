@@ -0,0 +1,84 @@
+package com.learnreactivespring.learnreactivespring.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Gradient style adaptive concurrency limit (the idea behind Netflix' concurrency-limits Gradient2):
+//the limit keeps growing while the latency stays close to its long term average, and is cut down as soon as the short
+//term latency goes above it, i.e. when requests start queueing somewhere (event loop, timers, downstream).
+//  gradient = clamp(longRtt / shortRtt, 0.5, 1)
+//  newLimit = limit * gradient + sqrt(limit)    <- sqrt(limit) is the headroom allowed to queue
+//Requests above the limit are rejected straight away instead of making everybody slower.
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LONG_RTT_WEIGHT = 1.0 / 600;   //~600 samples
+    private static final double SHORT_RTT_WEIGHT = 1.0 / 10;   //~10 samples
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    //only touched inside onSample, under the lock
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    //true -> the caller owns a slot and has to call release() exactly once
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtRelease);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+        if (longRttNanos > 2 * shortRttNanos) {
+            //latency dropped a lot for good (e.g. after a deployment), let the long term average catch up faster
+            longRttNanos *= 0.95;
+        }
+
+        if (inFlightAtRelease < estimatedLimit / 2) {
+            //not using the limit -> no information about whether it could be higher
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,31 @@
+package com.learnreactivespring.learnreactivespring.concurrency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.concurrency")
+public class ConcurrencyLimitProperties {
+
+    //one entry per limited route, matched as described in PathRoutes, e.g.
+    //learnreactivespring.concurrency.routes[0].path=/flux
+    //learnreactivespring.concurrency.routes[0].max-limit=200
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        //path pattern, see PathRoutes
+        private String path;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 1000;
+        //how fast the limit follows the newly computed one, 0..1
+        private double smoothing = 0.2;
+        //sent back with the 503 of a rejected request
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.learnreactivespring.learnreactivespring.concurrency;
+
+import com.learnreactivespring.learnreactivespring.router.PathRoutes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+//Applies an AdaptiveConcurrencyLimiter per configured route (learnreactivespring.concurrency.routes).
+//A request holds its slot until the response is complete, so a stream like /fluxstream counts for its whole life.
+//Over the limit -> 503 Service Unavailable with Retry-After, without ever reaching the handler.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)   //before anything which does real work for the request
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitingWebFilter implements WebFilter {
+
+    private final PathRoutes<LimitedRoute> routes = new PathRoutes<>();
+
+    public ConcurrencyLimitingWebFilter(ConcurrencyLimitProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        for (ConcurrencyLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(route.getPath(), new LimitedRoute(route, registry));
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        LimitedRoute route = routes.match(exchange);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        if (!route.limiter.tryAcquire()) {
+            route.rejected.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, route.retryAfterSeconds);
+            return response.setComplete();
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> route.limiter.release(System.nanoTime() - start));
+    }
+
+    private static final class LimitedRoute {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final String retryAfterSeconds;
+        private final Counter rejected;
+
+        private LimitedRoute(ConcurrencyLimitProperties.Route route, MeterRegistry meterRegistry) {
+            this.limiter = new AdaptiveConcurrencyLimiter(
+                    route.getInitialLimit(), route.getMinLimit(), route.getMaxLimit(), route.getSmoothing());
+            this.retryAfterSeconds = String.valueOf(Math.max(1, route.getRetryAfter().getSeconds()));
+            Gauge.builder("learnreactivespring.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("route", route.getPath())
+                    .register(meterRegistry);
+            Gauge.builder("learnreactivespring.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("route", route.getPath())
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("learnreactivespring.concurrency.rejected")
+                    .tag("route", route.getPath())
+                    .register(meterRegistry);
+        }
+    }
+}
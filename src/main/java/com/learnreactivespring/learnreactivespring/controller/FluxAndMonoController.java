@@ -1,34 +1,64 @@
 package com.learnreactivespring.learnreactivespring.controller;
 
+import com.learnreactivespring.learnreactivespring.codec.BinaryMediaTypes;
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponse;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponses;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import com.learnreactivespring.learnreactivespring.stream.SharedTicker;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.function.Supplier;
 
 //@@@2
 @RestController
 public class FluxAndMonoController {
 
+    private final SignalTracing signalTracing;  //decides per endpoint if the signals are logged (see learnreactivespring.tracing.*)
+    private final SharedTicker sharedTicker;    //one interval for all the /fluxinfinitestream clients
+    private final StreamMetrics streamMetrics;  //active streams, elements, cancellations and errors per endpoint
+    private final TimerSchedulers timerSchedulers;  //runs the delayElements timers, asked per request so withVirtualTime applies
+    private final Supplier<PreEncodedResponse> mono;
+
+    public FluxAndMonoController(SignalTracing signalTracing, SharedTicker sharedTicker, StreamMetrics streamMetrics,
+                                 TimerSchedulers timerSchedulers, PreEncodedResponses preEncodedResponses) {
+        this.signalTracing = signalTracing;
+        this.sharedTicker = sharedTicker;
+        this.streamMetrics = streamMetrics;
+        this.timerSchedulers = timerSchedulers;
+        this.mono = preEncodedResponses.register("mono", 1, MediaType.APPLICATION_STREAM_JSON);
+    }
+
     //go to - https://spring.io/reactive
 
     //@GetMapping is the router function
     @GetMapping("/flux")
     public Flux<Integer> returnFlux() { //Handler function is the function which is the body.
         return Flux.just(1, 2, 3, 4)
-                .delayElements(Duration.ofSeconds(1))
-                .log();
+                .delayElements(Duration.ofSeconds(1), timerSchedulers.timer())
+                .transform(signalTracing.flux("flux"))
+                .transform(streamMetrics.flux("flux"));
 
         //By default, browser is a blocking client and it waits for the entire response to be received and then it displays it in JSON
     }
 
-    @GetMapping(value = "/fluxstream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    //JSON by default, CBOR / Smile / protobuf varints when the client asks for them (see BinaryMediaTypes)
+    @GetMapping(value = "/fluxstream", produces = {MediaType.APPLICATION_STREAM_JSON_VALUE, BinaryMediaTypes.CBOR_STREAM_VALUE,
+            BinaryMediaTypes.SMILE_STREAM_VALUE, BinaryMediaTypes.PROTOBUF_VALUE})
     public Flux<Integer> returnFluxStream() {
         return Flux.just(1, 2, 3, 4)
-                .delayElements(Duration.ofSeconds(2))
-                .log();
+                .delayElements(Duration.ofSeconds(2), timerSchedulers.timer())
+                .transform(signalTracing.flux("fluxstream"))
+                .transform(streamMetrics.flux("fluxstream"));
 
         //By default, browser is a blocking client and it waits for the entire response to be received and then it displays it in JSON
     }
@@ -36,14 +66,38 @@ public class FluxAndMonoController {
 
     @GetMapping(value = "/fluxinfinitestream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
     public Flux<Long> returnFluxInfiniteStream() {
-        return Flux.interval(Duration.ofSeconds(1))
-                .log();
+        return sharedTicker.ticks() //every client still sees 0, 1, 2... but they all share the same timer
+                .transform(signalTracing.flux("fluxinfinitestream"))
+                .transform(streamMetrics.flux("fluxinfinitestream"));
+    }
+
+
+    //The same ticks as SSE, with the tick number as the event id. A client that reconnects with Last-Event-ID (browsers'
+    //EventSource does it on its own) is replayed the ticks it missed, as long as they are still in the replay buffer
+    //(see learnreactivespring.ticker.replay.*), and then continues with the live ones.
+    @GetMapping(value = "/fluxinfinitestream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Long>> returnResumableInfiniteStream(
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return sharedTicker.ticksAfter(lastEventId == null ? -1 : lastEventId)
+                .map(tick -> ServerSentEvent.builder(tick.getValue()).id(Long.toString(tick.getSequence())).build())
+                .transform(signalTracing.flux("fluxinfinitestream"))
+                .transform(streamMetrics.flux("fluxinfinitestream"));
     }
 
 
+    //the value never changes: encoded once, every request writes the same bytes (with an ETag for 304s)
     @GetMapping(value = "/mono", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
-    public Mono<Integer> returnMono() {
+    public Mono<Void> returnMono(ServerWebExchange exchange) {
+        return Mono.fromSupplier(mono)
+                .transform(signalTracing.mono("mono"))
+                .transform(streamMetrics.mono("mono"))
+                .flatMap(response -> response.write(exchange));
+    }
+
+    //just the value behind /mono, for RSocket (see StreamRSocketController)
+    public Mono<Integer> monoValue() {
         return Mono.just(1)
-                .log();
+                .transform(signalTracing.mono("mono"))
+                .transform(streamMetrics.mono("mono"));
     }
 }
@@ -0,0 +1,21 @@
+package com.learnreactivespring.learnreactivespring.files;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.files")
+public class FileStreamingProperties {
+
+    //served by /functional/files/**, unset -> every file is a 404
+    private Path directory;
+
+    //sendfile when the response allows it, memory-mapped chunks (MappedFileReader) otherwise or when off
+    private boolean zeroCopy = true;
+
+    //size of the memory-mapped chunks
+    private DataSize chunkSize = DataSize.ofMegabytes(4);
+}
@@ -0,0 +1,86 @@
+package com.learnreactivespring.learnreactivespring.files;
+
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.util.internal.PlatformDependent;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//A region of a file as memory-mapped chunks, what /functional/files sends when sendfile is not possible.
+//The chunks are mapped and loaded (read into the page cache) on boundedElastic, so the event loop which writes them
+//does not wait on the disk, and they are wrapped, never copied: the file does not go through the heap.
+//On Netty a chunk is unmapped as soon as Netty has written (released) it; with other buffer factories it is a plain
+//wrapped MappedByteBuffer, unmapped once garbage collected.
+public final class MappedFileReader {
+
+    private MappedFileReader() {
+    }
+
+    public static Flux<DataBuffer> read(Path file, long position, long count, int chunkSize, DataBufferFactory bufferFactory) {
+        if (count == 0) {
+            return Flux.empty();
+        }
+        long end = position + count;
+        return Flux.using(
+                () -> FileChannel.open(file, StandardOpenOption.READ),
+                channel -> Flux.<DataBuffer, Long>generate(() -> position, (offset, sink) -> {
+                    long size = Math.min(chunkSize, end - offset);
+                    try {
+                        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+                        mapped.load();
+                        sink.next(wrap(mapped, bufferFactory));
+                    } catch (IOException e) {
+                        sink.error(e);
+                        return offset;
+                    }
+                    if (offset + size == end) {
+                        sink.complete();
+                    }
+                    return offset + size;
+                }),
+                MappedFileReader::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static DataBuffer wrap(MappedByteBuffer mapped, DataBufferFactory bufferFactory) {
+        if (bufferFactory instanceof NettyDataBufferFactory) {
+            return ((NettyDataBufferFactory) bufferFactory).wrap(new MappedChunk(mapped));
+        }
+        return bufferFactory.wrap(mapped);
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();    //the mappings stay valid
+        } catch (IOException e) {
+            //read only, nothing was lost
+        }
+    }
+
+    //one mapping as a ByteBuf, unmapped when the last reference is released
+    private static final class MappedChunk extends CompositeByteBuf {
+
+        private final MappedByteBuffer mapped;
+
+        private MappedChunk(MappedByteBuffer mapped) {
+            super(UnpooledByteBufAllocator.DEFAULT, true, 1, Unpooled.wrappedBuffer(mapped));
+            this.mapped = mapped;
+        }
+
+        @Override
+        protected void deallocate() {
+            super.deallocate();
+            PlatformDependent.freeDirectBuffer(mapped);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.batch.BatchProperties;
+import com.learnreactivespring.learnreactivespring.batch.SubRequest;
+import com.learnreactivespring.learnreactivespring.batch.SubResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+//POST /functional/batch: N small GETs in one round trip. The body is a JSON array (or NDJSON) of {"id","path"}, every
+//sub-request calls the SampleHandlerFunction method behind its path directly (no HTTP parsing, routing or response
+//per sub-request) and the results are streamed back as NDJSON, one {"id","status","body"} line per sub-request in
+//the order they complete.
+@Component
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchHandlerFunction {
+
+    private final BatchProperties properties;
+    private final Map<String, Supplier<Mono<?>>> handlers;  //path -> value of that route
+
+    public BatchHandlerFunction(BatchProperties properties, SampleHandlerFunction sampleHandlerFunction) {
+        this.properties = properties;
+        this.handlers = Map.of(
+                "/functional/mono", sampleHandlerFunction::monoValue,
+                "/functional/flux", () -> sampleHandlerFunction.fluxValues().collectList());
+    }
+
+    public Mono<ServerResponse> batch(ServerRequest serverRequest) {
+        return serverRequest.bodyToFlux(SubRequest.class)
+                //sub-requests are tiny, reading them first allows a clean 400 for oversized batches; one past the limit is
+                //enough to know, the rest of an oversized body is never decoded nor held
+                .take(properties.getMaxSubRequests() + 1)
+                .collectList()
+                .flatMap(subRequests -> {
+                    if (subRequests.size() > properties.getMaxSubRequests()) {
+                        return ServerResponse.badRequest()
+                                .bodyValue("at most " + properties.getMaxSubRequests() + " sub-requests per batch");
+                    }
+                    return ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .body(dispatch(Flux.fromIterable(subRequests)), SubResponse.class);
+                });
+    }
+
+    //also the RSocket "batch" channel, where the sub-requests keep coming in while the first answers go out
+    public Flux<SubResponse> dispatch(Flux<SubRequest> subRequests) {
+        //flatMap -> completion order, at most max-concurrency sub-requests in flight
+        return subRequests.flatMap(this::dispatch, properties.getMaxConcurrency());
+    }
+
+    private Mono<SubResponse> dispatch(SubRequest subRequest) {
+        Supplier<Mono<?>> handler = handlers.get(subRequest.getPath());
+        if (handler == null) {
+            return Mono.just(SubResponse.error(subRequest.getId(), HttpStatus.NOT_FOUND.value(), "no such path: " + subRequest.getPath()));
+        }
+        return Mono.defer(handler)
+                .<SubResponse>map(body -> SubResponse.ok(subRequest.getId(), body))
+                .onErrorResume(e -> Mono.just(SubResponse.error(subRequest.getId(), HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage())));
+    }
+}
@@ -0,0 +1,55 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.cache.ReactiveCache;
+import com.learnreactivespring.learnreactivespring.cache.ReactiveCacheManager;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponse;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponses;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+//Builds handler functions whose body is looked up through a ReactiveCache, keyed by path and query string.
+//What is cached is the already encoded response (see PreEncodedResponse), so a hit costs neither the lookup nor the
+//JSON encoding, and comes with an ETag for conditional GETs.
+//Usage: cachedHandlerFunctions.readThrough("prices", priceHandler::price) as the handler function of a route
+@Component
+public class CachedHandlerFunctions {
+
+    private final ReactiveCacheManager reactiveCacheManager;
+    private final PreEncodedResponses preEncodedResponses;
+
+    public CachedHandlerFunctions(ReactiveCacheManager reactiveCacheManager, PreEncodedResponses preEncodedResponses) {
+        this.reactiveCacheManager = reactiveCacheManager;
+        this.preEncodedResponses = preEncodedResponses;
+    }
+
+    public <T> HandlerFunction<ServerResponse> readThrough(String cacheName, Function<ServerRequest, Mono<T>> loader) {
+        Function<ServerRequest, Mono<PreEncodedResponse>> lookup = encodedReadThrough(cacheName, loader);
+        return serverRequest -> lookup.apply(serverRequest)
+                .flatMap(response -> response.render(serverRequest))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    //the lookup alone, for handlers which do something per request around it (see SampleHandlerFunction.mono)
+    public <T> Function<ServerRequest, Mono<PreEncodedResponse>> encodedReadThrough(String cacheName, Function<ServerRequest, Mono<T>> loader) {
+        ReactiveCache<String, PreEncodedResponse> cache = reactiveCacheManager.getCache(cacheName);
+        return serverRequest -> cache.get(cacheKey(serverRequest), key -> loader.apply(serverRequest)
+                .map(value -> preEncodedResponses.encode(value, MediaType.APPLICATION_JSON)));
+    }
+
+    public Mono<ServerResponse> stats(ServerRequest serverRequest) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(reactiveCacheManager.stats());
+    }
+
+    private static String cacheKey(ServerRequest serverRequest) {
+        String query = serverRequest.uri().getRawQuery();
+        return query == null ? serverRequest.path() : serverRequest.path() + "?" + query;
+    }
+}
@@ -0,0 +1,162 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.files.FileStreamingProperties;
+import com.learnreactivespring.learnreactivespring.files.MappedFileReader;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+//GET/HEAD /functional/files/{path}: the files under learnreactivespring.files.directory, resumable (Range/If-Range,
+//one range per request) and cacheable (ETag/Last-Modified). The body is sent with sendfile by Reactor Netty when the
+//response allows it (Reactor Netty itself falls back to chunked reads for TLS), as memory-mapped chunks otherwise
+//(MappedFileReader), either way without going through the heap. The responses are never compressed, whatever the
+//file type (see ByteRangeCompressionExclusion), so ranges stay byte ranges of the file.
+//Paths leading out of the directory, symlinks included, and unreadable files are 404s like missing ones.
+@Component
+@EnableConfigurationProperties(FileStreamingProperties.class)
+public class FileHandlerFunction {
+
+    private final FileStreamingProperties properties;
+    private final int chunkSize;
+
+    public FileHandlerFunction(FileStreamingProperties properties) {
+        this.properties = properties;
+        this.chunkSize = (int) properties.getChunkSize().toBytes();
+    }
+
+    public Mono<ServerResponse> file(ServerRequest serverRequest) {
+        //file system metadata calls may wait on the disk too, keep them off the event loop
+        return Mono.fromCallable(() -> resolve(serverRequest.pathVariable("path")))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(file -> serverRequest.checkNotModified(file.lastModified, file.etag)
+                        .switchIfEmpty(Mono.defer(() -> serve(serverRequest, file))))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    //null -> 404
+    private StaticFile resolve(String requestPath) {
+        if (properties.getDirectory() == null) {
+            return null;
+        }
+        try {
+            Path base = properties.getDirectory().toRealPath();
+            Path file = base.resolve(StringUtils.trimLeadingCharacter(requestPath, '/')).normalize();
+            if (!file.startsWith(base)) {
+                return null;
+            }
+            Path real = file.toRealPath();
+            if (!real.startsWith(base) || !Files.isReadable(real)) {
+                return null;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(real, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? new StaticFile(real, attributes) : null;
+        } catch (InvalidPathException | IOException e) {
+            return null;
+        }
+    }
+
+    private Mono<ServerResponse> serve(ServerRequest serverRequest, StaticFile file) {
+        List<HttpRange> ranges;
+        try {
+            ranges = rangeApplies(serverRequest, file) ? serverRequest.headers().range() : List.of();
+        } catch (IllegalArgumentException e) {
+            return rangeNotSatisfiable(file);
+        }
+
+        ServerResponse.BodyBuilder response;
+        long position = 0;
+        long count = file.length;
+        if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(file.length);
+            long end = ranges.get(0).getRangeEnd(file.length);
+            if (start >= file.length || start > end) {
+                return rangeNotSatisfiable(file);
+            }
+            position = start;
+            count = end - start + 1;
+            response = ServerResponse.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.length);
+        } else {
+            response = ServerResponse.ok();     //several ranges get the whole file, multipart/byteranges is not worth it
+        }
+        response.contentType(MediaTypeFactory.getMediaType(file.path.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .contentLength(count)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(file.etag)
+                .lastModified(file.lastModified);
+        if (serverRequest.method() == HttpMethod.HEAD || count == 0) {
+            return response.build();
+        }
+        return response.body(body(file.path, position, count));
+    }
+
+    //a Range with an If-Range only applies while the file is still the one the client has the start of
+    private static boolean rangeApplies(ServerRequest serverRequest, StaticFile file) {
+        String ifRange = serverRequest.headers().firstHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(file.etag);   //strong comparison, a weak tag never matches
+        }
+        try {
+            return serverRequest.headers().asHttpHeaders().getFirstDate(HttpHeaders.IF_RANGE) == file.lastModified.toEpochMilli();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Mono<ServerResponse> rangeNotSatisfiable(StaticFile file) {
+        return ServerResponse.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + file.length)
+                .build();
+    }
+
+    private BodyInserter<Void, ReactiveHttpOutputMessage> body(Path file, long position, long count) {
+        return (message, context) -> {
+            if (properties.isZeroCopy() && message instanceof ZeroCopyHttpOutputMessage) {
+                return ((ZeroCopyHttpOutputMessage) message).writeWith(file, position, count);
+            }
+            return message.writeWith(MappedFileReader.read(file, position, count, chunkSize, message.bufferFactory()));
+        };
+    }
+
+    private static final class StaticFile {
+        private final Path path;
+        private final long length;
+        private final Instant lastModified;     //whole seconds, as in Last-Modified
+        private final String etag;
+
+        private StaticFile(Path path, BasicFileAttributes attributes) {
+            Instant modified = attributes.lastModifiedTime().toInstant();
+            this.path = path;
+            this.length = attributes.size();
+            this.lastModified = modified.truncatedTo(ChronoUnit.SECONDS);
+            //the full precision of the modification time, a file rewritten within the same second gets another tag
+            this.etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(modified.getEpochSecond())
+                    + "." + Integer.toHexString(modified.getNano()) + "\"";
+        }
+    }
+}
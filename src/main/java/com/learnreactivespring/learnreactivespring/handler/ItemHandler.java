@@ -0,0 +1,127 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.document.Item;
+import com.learnreactivespring.learnreactivespring.item.ItemProperties;
+import com.learnreactivespring.learnreactivespring.repository.ItemReactiveRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Optional;
+
+//CRUD for the item collection, exposed under /functional/items (see RouterFunctionConfig).
+@Component
+@EnableConfigurationProperties(ItemProperties.class)
+public class ItemHandler {
+
+    private final ItemReactiveRepository itemReactiveRepository;
+    private final ItemProperties itemProperties;
+
+    public ItemHandler(ItemReactiveRepository itemReactiveRepository, ItemProperties itemProperties) {
+        this.itemReactiveRepository = itemReactiveRepository;
+        this.itemProperties = itemProperties;
+    }
+
+    //GET /functional/items?after=<last id of the previous page>&limit=<page size>
+    //With limit, one page: read before answering (at most max-page-size documents) so that the response can point to
+    //the next one, with a Link: <...?after=<last id>&limit=...>; rel="next" header while there are more documents.
+    //Without limit the whole collection (after the cursor) is streamed: the documents go from the Mongo cursor to the
+    //response as they are read, limitRate bounds what is requested from the driver, and the driver fetches its next
+    //batch only when that demand comes back from the HTTP connection -> memory does not grow with the collection.
+    public Mono<ServerResponse> getAllItems(ServerRequest serverRequest) {
+        Optional<String> after = serverRequest.queryParam("after");
+        Optional<Integer> limit = serverRequest.queryParam("limit").map(this::pageSize);
+
+        if (limit.isPresent()) {
+            return page(serverRequest, after, limit.get());
+        }
+        Flux<Item> items = after.map(id -> itemReactiveRepository.findByIdGreaterThanOrderByIdAsc(id, Pageable.unpaged()))
+                .orElseGet(itemReactiveRepository::findAllByOrderByIdAsc);
+        return ServerResponse.ok()
+                .contentType(streamingContentType(serverRequest))
+                .body(items.limitRate(itemProperties.getStreamBatchSize()), Item.class);
+    }
+
+    private Mono<ServerResponse> page(ServerRequest serverRequest, Optional<String> after, int limit) {
+        PageRequest page = PageRequest.of(0, limit + 1);    //one more tells whether there is a next page
+        return after.map(id -> itemReactiveRepository.findByIdGreaterThanOrderByIdAsc(id, page))
+                .orElseGet(() -> itemReactiveRepository.findAllByOrderByIdAsc(page))
+                .collectList()
+                .flatMap(items -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(streamingContentType(serverRequest));
+                    if (items.size() > limit) {
+                        items = items.subList(0, limit);
+                        URI next = serverRequest.uriBuilder()
+                                .replaceQueryParam("after", items.get(limit - 1).getId())
+                                .replaceQueryParam("limit", limit)
+                                .build();
+                        response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+                    }
+                    return response.body(Flux.fromIterable(items), Item.class);
+                });
+    }
+
+    public Mono<ServerResponse> getOneItem(ServerRequest serverRequest) {
+        return itemReactiveRepository.findById(serverRequest.pathVariable("id"))
+                .flatMap(item -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(item))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> createItem(ServerRequest serverRequest) {
+        return serverRequest.bodyToMono(Item.class)
+                .flatMap(itemReactiveRepository::save)
+                .flatMap(item -> ServerResponse.created(serverRequest.uriBuilder().path("/{id}").build(item.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(item));
+    }
+
+    public Mono<ServerResponse> updateItem(ServerRequest serverRequest) {
+        String id = serverRequest.pathVariable("id");
+        return serverRequest.bodyToMono(Item.class)
+                .flatMap(newItem -> itemReactiveRepository.findById(id)
+                        .flatMap(currentItem -> {
+                            currentItem.setDescription(newItem.getDescription());
+                            currentItem.setPrice(newItem.getPrice());
+                            return itemReactiveRepository.save(currentItem);
+                        }))
+                .flatMap(item -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(item))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> deleteItem(ServerRequest serverRequest) {
+        return itemReactiveRepository.deleteById(serverRequest.pathVariable("id"))
+                .then(ServerResponse.noContent().build());
+    }
+
+    private int pageSize(String limit) {
+        try {
+            int pageSize = Integer.parseInt(limit);
+            if (pageSize < 1 || pageSize > itemProperties.getMaxPageSize()) {
+                throw new ServerWebInputException("limit has to be between 1 and " + itemProperties.getMaxPageSize());
+            }
+            return pageSize;
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("limit has to be a number");
+        }
+    }
+
+    private static MediaType streamingContentType(ServerRequest serverRequest) {
+        //NDJSON when asked for, otherwise a JSON array (which Jackson also writes element by element)
+        return serverRequest.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::isCompatibleWith)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+    }
+}
@@ -1,5 +1,11 @@
 package com.learnreactivespring.learnreactivespring.handler;
 
+import com.learnreactivespring.learnreactivespring.codec.BinaryMediaTypes;
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponse;
+import com.learnreactivespring.learnreactivespring.startup.FastStartupInitializer;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
@@ -7,21 +13,58 @@ import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Function;
+
 @Component
+@Profile("!" + FastStartupInitializer.PROFILE)  //registered by FastStartupInitializer then
 public class SampleHandlerFunction {
+
+    private final SignalTracing signalTracing;
+    private final StreamMetrics streamMetrics;
+    private final Function<ServerRequest, Mono<PreEncodedResponse>> cachedMono;
+
+    public SampleHandlerFunction(SignalTracing signalTracing, StreamMetrics streamMetrics, CachedHandlerFunctions cachedHandlerFunctions) {
+        this.signalTracing = signalTracing;
+        this.streamMetrics = streamMetrics;
+        this.cachedMono = cachedHandlerFunctions.encodedReadThrough("functional-mono", serverRequest -> Mono.just(1));
+    }
+
     public Mono<ServerResponse> flux(ServerRequest serverRequest) {
         //We have ServerResponse and ServerRequest in Reactive Specification -> which is on a similar lines to ServletRequest and ServletResponse of Servlet Specification.
 
         return ServerResponse.ok()  //Send a 200 Response
                 .contentType(MediaType.APPLICATION_JSON)    //Send the content type as MediaType.APPLICATION_JSON
-                .body(Flux.just(1, 2, 3, 4).log(), Integer.class);  //Send the Flux.just(1, 2, 3, 4) as body.
+                .body(fluxValues(), Integer.class);  //Send the Flux.just(1, 2, 3, 4) as body.
         //here we return the server response
     }
 
-    public Mono<ServerResponse> mono(ServerRequest serverRequest) {
+    //same values as CBOR, Smile or protobuf varints, whichever the Accept header prefers
+    public Mono<ServerResponse> fluxBinary(ServerRequest serverRequest) {
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(Mono.just(1).log(), Integer.class);
-        //here we return the server response
+                .contentType(BinaryMediaTypes.negotiate(serverRequest.headers().accept(), BinaryMediaTypes.DOCUMENT_TYPES))
+                .body(fluxValues(), Integer.class);
+    }
+
+    //just the values behind /functional/flux, also used by the batch route and RSocket (see BatchHandlerFunction, StreamRSocketController)
+    public Flux<Integer> fluxValues() {
+        return Flux.just(1, 2, 3, 4)
+                .transform(signalTracing.flux("functional-flux"))
+                .transform(streamMetrics.flux("functional-flux"));
+    }
+
+    //GET /functional/mono: the encoded value comes from the read-through cache, the tracing and the metrics are per
+    //request around the lookup, so cache hits are traced and counted as well
+    public Mono<ServerResponse> mono(ServerRequest serverRequest) {
+        return cachedMono.apply(serverRequest)
+                .transform(signalTracing.mono("functional-mono"))
+                .transform(streamMetrics.mono("functional-mono"))
+                .flatMap(response -> response.render(serverRequest));
+    }
+
+    //just the value behind /functional/mono, also used by the batch route and RSocket
+    public Mono<Integer> monoValue() {
+        return Mono.just(1)
+                .transform(signalTracing.mono("functional-mono"))
+                .transform(streamMetrics.mono("functional-mono"));
     }
 }
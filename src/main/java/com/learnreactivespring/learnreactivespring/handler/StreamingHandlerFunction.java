@@ -0,0 +1,105 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import com.learnreactivespring.learnreactivespring.stream.FrameCoalescer;
+import com.learnreactivespring.learnreactivespring.stream.SharedTicker;
+import com.learnreactivespring.learnreactivespring.stream.WindowAggregator;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+//Functional versions of /fluxstream and /fluxinfinitestream which write SSE or NDJSON in coalesced batches.
+@Component
+public class StreamingHandlerFunction {
+
+    private static final int MAX_WINDOW_SIZE = 1_000_000;
+    private static final Duration MIN_WINDOW_DURATION = Duration.ofMillis(10);
+
+    private final FrameCoalescer frameCoalescer;
+    private final WindowAggregator windowAggregator;
+    private final SharedTicker sharedTicker;
+    private final SignalTracing signalTracing;
+    private final StreamMetrics streamMetrics;
+    private final TimerSchedulers timerSchedulers;  //asked per request, see TimerSchedulers.timer()
+
+    public StreamingHandlerFunction(FrameCoalescer frameCoalescer, WindowAggregator windowAggregator, SharedTicker sharedTicker,
+                                    SignalTracing signalTracing, StreamMetrics streamMetrics, TimerSchedulers timerSchedulers) {
+        this.frameCoalescer = frameCoalescer;
+        this.windowAggregator = windowAggregator;
+        this.sharedTicker = sharedTicker;
+        this.signalTracing = signalTracing;
+        this.streamMetrics = streamMetrics;
+        this.timerSchedulers = timerSchedulers;
+    }
+
+    public Mono<ServerResponse> fluxStream(ServerRequest serverRequest, FrameCoalescer.Format format) {
+        Flux<Integer> elements = Flux.just(1, 2, 3, 4)
+                .delayElements(Duration.ofSeconds(2), timerSchedulers.timer())
+                .transform(signalTracing.flux("functional-fluxstream"))
+                .transform(streamMetrics.flux("functional-fluxstream"));
+        return coalesced(serverRequest, elements, format);
+    }
+
+    public Mono<ServerResponse> fluxInfiniteStream(ServerRequest serverRequest, FrameCoalescer.Format format) {
+        Flux<Long> ticks = sharedTicker.ticks()
+                .transform(signalTracing.flux("functional-fluxinfinitestream"))
+                .transform(streamMetrics.flux("functional-fluxinfinitestream"));
+        return coalesced(serverRequest, ticks, format);
+    }
+
+    //GET /functional/fluxinfinitestream/windows?size=<elements>&duration=<10s, 500ms...>
+    //One count/sum/min/max/mean/percentiles summary per window of ticks instead of every tick, the windows are closed
+    //after size ticks, after duration, or whichever comes first with both.
+    public Mono<ServerResponse> fluxInfiniteStreamWindows(ServerRequest serverRequest, FrameCoalescer.Format format) {
+        Integer size = serverRequest.queryParam("size").map(this::windowSize).orElse(null);
+        Duration duration = serverRequest.queryParam("duration").map(this::windowDuration).orElse(null);
+        if (size == null && duration == null) {
+            throw new ServerWebInputException("size and/or duration are required");
+        }
+        Flux<Long> ticks = sharedTicker.ticks()
+                .transform(signalTracing.flux("functional-fluxinfinitestream-windows"))
+                .transform(streamMetrics.flux("functional-fluxinfinitestream-windows"));
+        return coalesced(serverRequest, windowAggregator.aggregate(ticks, size, duration), format);
+    }
+
+    private int windowSize(String size) {
+        try {
+            int windowSize = Integer.parseInt(size);
+            if (windowSize < 1 || windowSize > MAX_WINDOW_SIZE) {
+                throw new ServerWebInputException("size has to be between 1 and " + MAX_WINDOW_SIZE);
+            }
+            return windowSize;
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("size has to be a number");
+        }
+    }
+
+    private Duration windowDuration(String duration) {
+        try {
+            Duration windowDuration = DurationStyle.detectAndParse(duration);
+            if (windowDuration.compareTo(MIN_WINDOW_DURATION) < 0) {
+                throw new ServerWebInputException("duration has to be at least " + MIN_WINDOW_DURATION.toMillis() + "ms");
+            }
+            return windowDuration;
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("duration has to be like 10s or 500ms");
+        }
+    }
+
+    private Mono<ServerResponse> coalesced(ServerRequest serverRequest, Flux<?> elements, FrameCoalescer.Format format) {
+        serverRequest.attributes().put(FrameCoalescer.COALESCED_ATTRIBUTE, Boolean.TRUE);
+        return ServerResponse.ok()
+                .contentType(format.getMediaType())
+                //writeAndFlushWith -> exactly one flush per coalesced batch, instead of one per element
+                .body((outputMessage, context) -> outputMessage.writeAndFlushWith(
+                        frameCoalescer.coalesce(elements, format, outputMessage.bufferFactory()).map(Mono::just)));
+    }
+}
@@ -0,0 +1,15 @@
+package com.learnreactivespring.learnreactivespring.item;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.items")
+public class ItemProperties {
+
+    //how many documents are requested from the Mongo cursor at once while streaming, bounds the memory of a stream
+    private int streamBatchSize = 256;
+
+    //upper bound of the limit query parameter
+    private int maxPageSize = 1000;
+}
@@ -0,0 +1,120 @@
+package com.learnreactivespring.learnreactivespring.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+//Per endpoint meters which http.server.requests can not give: a long lived stream is only timed once it ends, so the
+//in-flight streams, the elements they emitted and how they ended are tracked here.
+//Usage: flux.transform(streamMetrics.flux("fluxinfinitestream"))
+//  learnreactivespring.stream.active{endpoint}         gauge, subscriptions currently open
+//  learnreactivespring.stream.elements{endpoint}       counter, onNext signals
+//  learnreactivespring.stream.terminations{endpoint,signal}  counter, onComplete / onError / cancel
+//Meters are created once per endpoint, the per request cost is three light operators and a few atomic increments.
+@Component
+@EnableConfigurationProperties(StreamMetricsProperties.class)
+public class StreamMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final StreamMetricsProperties properties;
+    private final Map<String, EndpointMeters> endpoints = new ConcurrentHashMap<>();
+
+    public StreamMetrics(ObjectProvider<MeterRegistry> meterRegistry, StreamMetricsProperties properties) {
+        //slices without actuator (e.g. @WebFluxTest) have no registry bean
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.properties = properties;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Function<Flux<T>, Flux<T>> flux(String endpoint) {
+        if (!properties.isEnabled()) {
+            return flux -> flux;
+        }
+        return (Function) meters(endpoint).flux;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Function<Mono<T>, Mono<T>> mono(String endpoint) {
+        if (!properties.isEnabled()) {
+            return mono -> mono;
+        }
+        return (Function) meters(endpoint).mono;
+    }
+
+    private EndpointMeters meters(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, name -> new EndpointMeters(meterRegistry, name, properties.isOperatorTimings()));
+    }
+
+    private static final class EndpointMeters {
+        private final AtomicInteger active = new AtomicInteger();
+        private final Counter elements;
+        private final Counter completions;
+        private final Counter errors;
+        private final Counter cancellations;
+        private final Function<Flux<Object>, Flux<Object>> flux;
+        private final Function<Mono<Object>, Mono<Object>> mono;
+
+        private EndpointMeters(MeterRegistry meterRegistry, String endpoint, boolean operatorTimings) {
+            Gauge.builder("learnreactivespring.stream.active", active, AtomicInteger::get)
+                    .description("Subscriptions currently open")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            this.elements = Counter.builder("learnreactivespring.stream.elements")
+                    .description("Elements emitted")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            this.completions = termination(meterRegistry, endpoint, "complete");
+            this.errors = termination(meterRegistry, endpoint, "error");
+            this.cancellations = termination(meterRegistry, endpoint, "cancel");
+
+            //built once per endpoint, not per request
+            this.flux = source -> {
+                Flux<Object> instrumented = source
+                        .doOnSubscribe(subscription -> active.incrementAndGet())
+                        .doOnNext(element -> elements.increment())
+                        .doFinally(this::terminated);
+                return operatorTimings ? instrumented.name(endpoint).metrics() : instrumented;
+            };
+            this.mono = source -> {
+                Mono<Object> instrumented = source
+                        .doOnSubscribe(subscription -> active.incrementAndGet())
+                        .doOnNext(element -> elements.increment())
+                        .doFinally(this::terminated);
+                return operatorTimings ? instrumented.name(endpoint).metrics() : instrumented;
+            };
+        }
+
+        private static Counter termination(MeterRegistry meterRegistry, String endpoint, String signal) {
+            return Counter.builder("learnreactivespring.stream.terminations")
+                    .description("Subscriptions ended, by signal")
+                    .tags("endpoint", endpoint, "signal", signal)
+                    .register(meterRegistry);
+        }
+
+        private void terminated(SignalType signalType) {
+            active.decrementAndGet();
+            switch (signalType) {
+                case ON_ERROR:
+                    errors.increment();
+                    break;
+                case CANCEL:
+                    cancellations.increment();
+                    break;
+                default:
+                    completions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.learnreactivespring.learnreactivespring.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.metrics")
+public class StreamMetricsProperties {
+
+    //active subscriptions gauge, elements/cancellations/errors counters per endpoint
+    private boolean enabled = true;
+
+    //Reactor's own .name(endpoint).metrics(): flow duration, onNext delay and request amounts per operator chain.
+    //Noticeably more expensive (timers per element), so only switch it on while investigating.
+    private boolean operatorTimings = false;
+}
@@ -0,0 +1,130 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import java.util.function.LongSupplier;
+
+//Count based circuit breaker of one downstream service.
+//CLOSED: the outcome of the last windowSize calls is kept in a ring, once minimumCalls are known and the failure rate
+//reaches the threshold it opens.
+//OPEN: every call is refused without reaching the service, for openDuration.
+//HALF_OPEN: halfOpenCalls trial calls are let through, one failure opens it again, all of them successful closes it.
+//The closed state, i.e. nearly always, only costs a volatile read per call, the outcomes are recorded under the lock.
+public class CircuitBreaker {
+
+    public enum State {CLOSED, HALF_OPEN, OPEN}
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private volatile State state = State.CLOSED;
+    //only touched under the lock
+    private final boolean[] failed;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(OutboundProperties.Breaker properties, LongSupplier nanoClock) {
+        this.enabled = properties.isEnabled();
+        this.windowSize = properties.getWindowSize();
+        this.minimumCalls = Math.min(properties.getMinimumCalls(), windowSize);
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = properties.getHalfOpenCalls();
+        this.nanoClock = nanoClock;
+        this.failed = new boolean[windowSize];
+    }
+
+    //true -> the call may go out, and has to end with exactly one of onSuccess / onFailure / onCancel
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    return false;
+                }
+                halfOpenPermits--;
+            }
+            return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (!enabled) {
+            return;     //never leaves CLOSED
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+        }
+    }
+
+    //the call ended without an outcome (cancelled, e.g. the slower attempt of a hedge), its trial permit is given back
+    public synchronized void onCancel() {
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+        //a success can cross it too, when it is the one that makes minimumCalls
+        if (enabled && recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        state = State.CLOSED;
+    }
+}
@@ -0,0 +1,12 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+//A call refused by the circuit breaker of its service. Left to propagate from a handler it is a 503.
+public class CircuitOpenException extends ResponseStatusException {
+
+    public CircuitOpenException(String service) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "The circuit breaker of " + service + " is open");
+    }
+}
@@ -0,0 +1,36 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import com.learnreactivespring.learnreactivespring.stream.LogHistogram;
+
+import java.time.Duration;
+
+//When to send the hedge of a call: the configured percentile (p95 by default) of the latencies of the last window of
+//successful calls to the service, read from a LogHistogram (within 1/32) every time a window is complete.
+//null until the first window is complete, a service is not hedged before its latencies are known.
+public class HedgeDelay {
+
+    private final double percentile;
+    private final int window;
+    private final long minDelayNanos;
+
+    private final LogHistogram latencies = new LogHistogram();   //under the lock
+    private volatile Duration delay;
+
+    public HedgeDelay(OutboundProperties.Hedging properties) {
+        this.percentile = properties.getPercentile();
+        this.window = properties.getWindow();
+        this.minDelayNanos = properties.getMinDelay().toNanos();
+    }
+
+    public synchronized void record(long latencyNanos) {
+        latencies.record(latencyNanos);
+        if (latencies.getCount() >= window) {
+            delay = Duration.ofNanos(Math.max(minDelayNanos, latencies.valueAtPercentile(percentile)));
+            latencies.reset();
+        }
+    }
+
+    public Duration current() {
+        return delay;
+    }
+}
@@ -0,0 +1,136 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+//One downstream service as the handlers see it (see OutboundClients): a WebClient with the service's base URL on the
+//shared connection pool, and around every call
+//- a deadline, the service's timeout or the one of the call, shared by the attempts of a hedged call
+//- for idempotent calls, a second attempt when the first one is still running after the service's p95 (HedgeDelay),
+//  the first answer wins and the other attempt is cancelled
+//- the circuit breaker, a call refused by it fails right away with a CircuitOpenException (503)
+//Every attempt counts for the breaker: 5xx, timeouts and connection errors as failures, 4xx as successes (the service
+//answered, the request was wrong), cancelled attempts not at all.
+public class OutboundClient {
+
+    private final String name;
+    private final WebClient webClient;
+    private final Scheduler timer;
+    private final Duration timeout;
+    private final boolean hedging;
+    private final HedgeDelay hedgeDelay;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter hedges;
+    private final Counter rejected;
+
+    public OutboundClient(String name, WebClient webClient, Scheduler timer, OutboundProperties.Service properties,
+                          HedgeDelay hedgeDelay, CircuitBreaker circuitBreaker, Counter hedges, Counter rejected) {
+        this.name = name;
+        this.webClient = webClient;
+        this.timer = timer;
+        this.timeout = properties.getTimeout();
+        this.hedging = properties.getHedging().isEnabled();
+        this.hedgeDelay = hedgeDelay;
+        this.circuitBreaker = circuitBreaker;
+        this.hedges = hedges;
+        this.rejected = rejected;
+    }
+
+    //GET uri (relative to the base URL) and decode the body, hedged
+    public <T> Mono<T> get(String uri, Class<T> bodyType, Object... uriVariables) {
+        return call(client -> client.get().uri(uri, uriVariables).retrieve().bodyToMono(bodyType), true);
+    }
+
+    //Any request on the service's WebClient. Only idempotent ones are hedged, the others may not be sent twice
+    public <T> Mono<T> call(Function<WebClient, Mono<T>> request, boolean idempotent) {
+        return call(request, idempotent, timeout);
+    }
+
+    public <T> Mono<T> call(Function<WebClient, Mono<T>> request, boolean idempotent, Duration timeout) {
+        return Mono.defer(() -> {
+            long deadline = timer.now(TimeUnit.NANOSECONDS) + timeout.toNanos();
+            Mono<T> attempt = attempt(request, idempotent, deadline);
+            Duration delay = idempotent && hedging ? hedgeDelay.current() : null;
+            if (delay == null || delay.compareTo(timeout) >= 0) {
+                return attempt;
+            }
+            return hedged(attempt, delay);
+        });
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private <T> Mono<T> attempt(Function<WebClient, Mono<T>> request, boolean idempotent, long deadline) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new CircuitOpenException(name));
+            }
+            long start = timer.now(TimeUnit.NANOSECONDS);
+            long remaining = deadline - start;
+            if (remaining <= 0) {
+                circuitBreaker.onCancel();
+                return Mono.error(new TimeoutException("No time left for a call to " + name));
+            }
+            Mono<T> response = request.apply(webClient);
+            if (idempotent) {
+                //the connection of a cancelled attempt (the slower one of a hedge) is closed, and can be handed out by
+                //the pool meanwhile: the request sent on it fails before any response, it is safe to send it once more
+                response = response.retryWhen(Retry.max(1)
+                        .filter(OutboundClient::isPrematureClose)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+            }
+            return response
+                    .timeout(Duration.ofNanos(remaining), timer)
+                    .doOnSuccess(value -> {
+                        circuitBreaker.onSuccess();
+                        hedgeDelay.record(timer.now(TimeUnit.NANOSECONDS) - start);
+                    })
+                    .doOnError(e -> {
+                        if (e instanceof WebClientResponseException && ((WebClientResponseException) e).getStatusCode().is4xxClientError()) {
+                            circuitBreaker.onSuccess();
+                        } else {
+                            circuitBreaker.onFailure();
+                        }
+                    })
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    private static boolean isPrematureClose(Throwable e) {
+        return e instanceof WebClientRequestException && e.getCause() instanceof PrematureCloseException;
+    }
+
+    private <T> Mono<T> hedged(Mono<T> attempt, Duration delay) {
+        //the first attempt is over: a fast failure (4xx, open circuit...) is not hedged, and does not wait for the
+        //hedge delay either, the pending timer is cancelled and the merge below ends with the first attempt
+        Sinks.Empty<Void> settled = Sinks.empty();
+        Mono<T> first = attempt.doOnTerminate(settled::tryEmitEmpty);
+        Mono<T> hedge = Mono.delay(delay, timer)
+                .takeUntilOther(settled.asMono())
+                .flatMap(tick -> {
+                    hedges.increment();
+                    return attempt;
+                });
+        //first value wins and cancels the other, an error only once both attempts are over
+        return Flux.mergeDelayError(1, first, hedge)
+                .next()
+                .onErrorMap(Exceptions::isMultiple, e -> Exceptions.unwrapMultiple(e).get(0));
+    }
+}
@@ -0,0 +1,88 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//The outbound side of the handlers: one OutboundClient per downstream service of learnreactivespring.outbound.services,
+//all of them on one Reactor Netty connection pool tuned by learnreactivespring.outbound.pool.
+//  outboundClients.client("prices").get("/prices/{id}", Price.class, id)
+//The WebClients come from Boot's WebClient.Builder, so they have the same codecs as the server.
+//No handler calls a downstream service yet: nothing in handler/ uses this, and with no services configured it only
+//holds the (empty) connection pool. OutboundClientTest and HedgingLoadTest exercise it against a stub server.
+@Component
+@EnableConfigurationProperties(OutboundProperties.class)
+public class OutboundClients implements DisposableBean {
+
+    private final OutboundProperties properties;
+    private final WebClient.Builder webClientBuilder;
+    private final Scheduler timer;  //timeouts, hedge delays and the clock of deadlines, see learnreactivespring.scheduling.timer
+    private final MeterRegistry meterRegistry;
+    private final ConnectionProvider connectionProvider;
+    private final ReactorClientHttpConnector connector;
+    private final Map<String, OutboundClient> clients = new ConcurrentHashMap<>();
+
+    public OutboundClients(OutboundProperties properties, WebClient.Builder webClientBuilder, TimerSchedulers timerSchedulers,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.webClientBuilder = webClientBuilder;
+        this.timer = timerSchedulers.timer();
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        OutboundProperties.Pool pool = properties.getPool();
+        this.connectionProvider = ConnectionProvider.builder("outbound")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(pool.isMetrics())
+                .build();
+        this.connector = new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis()));
+    }
+
+    public OutboundClient client(String service) {
+        return clients.computeIfAbsent(service, this::createClient);
+    }
+
+    private OutboundClient createClient(String name) {
+        OutboundProperties.Service service = properties.getServices().get(name);
+        if (service == null) {
+            throw new IllegalArgumentException("Unknown outbound service " + name + ", see learnreactivespring.outbound.services");
+        }
+        WebClient.Builder builder = webClientBuilder.clone().clientConnector(connector);
+        if (service.getBaseUrl() != null) {
+            builder.baseUrl(service.getBaseUrl());
+        }
+        CircuitBreaker circuitBreaker = new CircuitBreaker(service.getCircuitBreaker(), () -> timer.now(TimeUnit.NANOSECONDS));
+        Gauge.builder("learnreactivespring.outbound.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 closed, 1 half open, 2 open")
+                .tag("service", name)
+                .register(meterRegistry);
+        return new OutboundClient(name, builder.build(), timer, service, new HedgeDelay(service.getHedging()), circuitBreaker,
+                Counter.builder("learnreactivespring.outbound.hedges").tag("service", name).register(meterRegistry),
+                Counter.builder("learnreactivespring.outbound.rejected").tag("service", name).register(meterRegistry));
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+}
@@ -0,0 +1,72 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.outbound")
+public class OutboundProperties {
+
+    //one pool for all the downstream services (Reactor Netty keeps the connections per remote address inside it)
+    private Pool pool = new Pool();
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    //one entry per downstream service, e.g.
+    //learnreactivespring.outbound.services.prices.base-url=http://prices:8080
+    //learnreactivespring.outbound.services.prices.timeout=500ms
+    private Map<String, Service> services = new HashMap<>();
+
+    @Data
+    public static class Pool {
+        //per remote address
+        private int maxConnections = 500;
+        //acquires waiting for a connection once they are all in use, -1 -> no limit. Over it the call fails right away
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        //closed when unused for that long, or that old, before the server or a load balancer drops them silently
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        //how often the idle / expired connections are closed in the background, 0 -> only when they are acquired
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        //reactor.netty.connection.provider.* gauges (active, idle, pending connections)
+        private boolean metrics = true;
+    }
+
+    @Data
+    public static class Service {
+        private String baseUrl;
+        //deadline of a call, hedge included. Can be overridden per call
+        private Duration timeout = Duration.ofSeconds(2);
+        private Hedging hedging = new Hedging();
+        private Breaker circuitBreaker = new Breaker();
+    }
+
+    //a second attempt of an idempotent call still running after the percentile latency of the service
+    @Data
+    public static class Hedging {
+        private boolean enabled = true;
+        private double percentile = 0.95;
+        //successful calls per latency window, the delay is the percentile of the last complete window.
+        //No hedging until the first window is complete
+        private int window = 200;
+        private Duration minDelay = Duration.ofMillis(5);
+    }
+
+    @Data
+    public static class Breaker {
+        private boolean enabled = true;
+        //outcomes of the last window-size calls, opened when at least minimum-calls of them are known and
+        //failure-rate-threshold of them failed (5xx, timeout, connection errors)
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        //calls fail right away with a 503 for that long, then half-open-calls trial calls decide to close it again
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 5;
+    }
+}
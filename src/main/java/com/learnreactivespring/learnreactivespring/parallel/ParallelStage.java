@@ -0,0 +1,95 @@
+package com.learnreactivespring.learnreactivespring.parallel;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Function;
+
+//Runs a CPU-bound transformation of every element on several cores instead of the one event loop the request came
+//in on: .transform(parallelStage.map(expensive)). The elements are split round robin over the rails
+//(learnreactivespring.parallel.*), each rail runs on its own worker of a scheduler sized for the CPU, and the rails
+//are merged back, in the upstream order unless ordered=false.
+//Only worth it when the transformation costs more than the hops between threads, not for a map(String::toUpperCase).
+@Component
+@EnableConfigurationProperties(ParallelStageProperties.class)
+public class ParallelStage implements DisposableBean {
+
+    private static final Comparator<Indexed<?>> BY_INDEX = Comparator.comparingLong(indexed -> indexed.index);
+
+    private final ParallelStageProperties properties;
+    private final int rails;
+    private final Scheduler workers;
+
+    public ParallelStage(ParallelStageProperties properties) {
+        this.properties = properties;
+        this.rails = properties.getRails() > 0 ? properties.getRails() : Runtime.getRuntime().availableProcessors();
+        //one worker per rail, not Schedulers.parallel() -> the timers and the event loops keep their threads
+        this.workers = Schedulers.newParallel("parallel-stage", rails, true);
+    }
+
+    public <T, R> Function<Flux<T>, Flux<R>> map(Function<? super T, ? extends R> mapper) {
+        return map(mapper, properties.isOrdered());
+    }
+
+    public <T, R> Function<Flux<T>, Flux<R>> map(Function<? super T, ? extends R> mapper, boolean ordered) {
+        int prefetch = properties.getPrefetch();
+        if (!ordered) {
+            return elements -> elements
+                    .parallel(rails, prefetch)
+                    .runOn(workers, prefetch)
+                    .<R>map(mapper)
+                    .sequential(prefetch);
+        }
+        //every rail sees its elements in upstream order, so merging the rails by upstream index restores the order
+        return elements -> elements
+                .index()
+                .parallel(rails, prefetch)
+                .runOn(workers, prefetch)
+                .map(indexed -> Indexed.apply(indexed.getT1(), mapper, indexed.getT2()))
+                .ordered(BY_INDEX, prefetch)
+                .handle((indexed, sink) -> {
+                    if (indexed.error != null) {
+                        sink.error(indexed.error);
+                    } else {
+                        sink.next(indexed.value);
+                    }
+                });
+    }
+
+    public int rails() {
+        return rails;
+    }
+
+    @Override
+    public void destroy() {
+        workers.dispose();
+    }
+
+    //A failed element travels through the merge like the others: the ordered merge of reactor-core 3.4 never passes
+    //on an error of a rail, and this way the error comes out at the position of its element, as with a sequential map.
+    private static final class Indexed<R> {
+        private final long index;
+        private final R value;
+        private final RuntimeException error;
+
+        private Indexed(long index, R value, RuntimeException error) {
+            this.index = index;
+            this.value = value;
+            this.error = error;
+        }
+
+        static <T, R> Indexed<R> apply(long index, Function<? super T, ? extends R> mapper, T element) {
+            try {
+                return new Indexed<>(index, Objects.requireNonNull(mapper.apply(element), "The mapper returned a null value."), null);
+            } catch (RuntimeException e) {
+                return new Indexed<>(index, null, e);
+            }
+        }
+    }
+}
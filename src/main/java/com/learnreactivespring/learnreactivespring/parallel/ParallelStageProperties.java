@@ -0,0 +1,18 @@
+package com.learnreactivespring.learnreactivespring.parallel;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.parallel")
+public class ParallelStageProperties {
+
+    //rails and worker threads of the stage, 0 -> one per core
+    private int rails = 0;
+
+    //elements requested ahead per rail, small keeps expensive elements spread evenly over the rails
+    private int prefetch = 32;
+
+    //keep the upstream order, a slow element then holds back the ones finished after it on the other rails
+    private boolean ordered = true;
+}
@@ -0,0 +1,46 @@
+package com.learnreactivespring.learnreactivespring.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    //clients are told apart by this header, the ones without it by their IP address
+    private String keyHeader = "X-API-Key";
+
+    //the API keys honoured in key-header, any other value counts as no key. Otherwise a client could send a new made
+    //up key with every request and get a fresh bucket each time
+    private Set<String> apiKeys = new HashSet<>();
+
+    //a bucket which stayed full that long is dropped, a full bucket is the same as a new one so nothing is lost
+    private Duration idleTimeout = Duration.ofMinutes(1);
+
+    //buckets kept per route, the keys seen after that share a few buckets picked by their hash until the idle ones
+    //are dropped
+    private int maxKeys = 1_000_000;
+
+    //one entry per limited route, matched as described in PathRoutes, e.g.
+    //learnreactivespring.ratelimit.routes[0].path=/flux
+    //learnreactivespring.ratelimit.routes[0].capacity=50
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        //path pattern, see PathRoutes
+        private String path;
+        //requests a client can send at once after being idle
+        private int capacity = 50;
+        //sustained requests per second per client
+        private double refillPerSecond = 10;
+    }
+}
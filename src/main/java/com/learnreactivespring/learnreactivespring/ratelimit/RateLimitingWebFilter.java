@@ -0,0 +1,119 @@
+package com.learnreactivespring.learnreactivespring.ratelimit;
+
+import com.learnreactivespring.learnreactivespring.router.PathRoutes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+//Applies a TokenBucketRateLimiter per configured route (learnreactivespring.ratelimit.routes), one bucket per known
+//API key (learnreactivespring.ratelimit.api-keys) or, without one, per client IP. So one tenant hammering /flux runs out of tokens, not the others.
+//Out of tokens -> 429 Too Many Requests with Retry-After, without ever reaching the handler. Every limited response
+//carries X-RateLimit-Limit / X-RateLimit-Remaining.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)   //before the concurrency limit, a throttled client should not take a slot
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitingWebFilter implements WebFilter, DisposableBean {
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitProperties properties;
+    private final PathRoutes<LimitedRoute> routes = new PathRoutes<>();
+    private final Disposable eviction;
+
+    public RateLimitingWebFilter(RateLimitProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        if (properties.getIdleTimeout().isZero() || properties.getIdleTimeout().isNegative()) {
+            throw new IllegalArgumentException("learnreactivespring.ratelimit.idle-timeout must be positive, was "
+                    + properties.getIdleTimeout());
+        }
+        this.properties = properties;
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        if (properties.isEnabled()) {
+            for (RateLimitProperties.Route route : properties.getRoutes()) {
+                routes.add(route.getPath(), new LimitedRoute(route, properties.getMaxKeys(), registry));
+            }
+        }
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        //a sweep over a million keys takes a while, not on the timer threads which run every delayElements / interval
+        this.eviction = routes.isEmpty() ? null : Schedulers.boundedElastic().schedulePeriodically(
+                () -> routes.forEach(route -> route.limiter.evictIdle(System.nanoTime(), idleNanos)),
+                idleNanos, idleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        LimitedRoute route = routes.match(exchange);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        long remaining = route.limiter.tryAcquire(key(exchange.getRequest()), System.nanoTime());
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(LIMIT_HEADER, route.capacity);
+        if (remaining < 0) {
+            route.rejected.increment();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            headers.set(REMAINING_HEADER, "0");
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(-remaining - 1) + 1));  //rounded up
+            return response.setComplete();
+        }
+        headers.set(REMAINING_HEADER, String.valueOf(remaining));
+        return chain.filter(exchange);
+    }
+
+    //prefixed, otherwise an API key spelled like somebody's IP would drain their bucket
+    private String key(ServerHttpRequest request) {
+        String apiKey = request.getHeaders().getFirst(properties.getKeyHeader());
+        if (apiKey != null && properties.getApiKeys().contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null || remoteAddress.getAddress() == null
+                ? "ip:unknown"
+                : "ip:" + remoteAddress.getAddress().getHostAddress();
+    }
+
+    @Override
+    public void destroy() {
+        if (eviction != null) {
+            eviction.dispose();
+        }
+    }
+
+    private static final class LimitedRoute {
+        private final TokenBucketRateLimiter limiter;
+        private final String capacity;
+        private final Counter rejected;
+
+        private LimitedRoute(RateLimitProperties.Route route, int maxKeys, MeterRegistry meterRegistry) {
+            this.limiter = new TokenBucketRateLimiter(route.getCapacity(), route.getRefillPerSecond(), maxKeys);
+            this.capacity = String.valueOf(route.getCapacity());
+            Gauge.builder("learnreactivespring.ratelimit.keys", limiter, TokenBucketRateLimiter::size)
+                    .tag("route", route.getPath())
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("learnreactivespring.ratelimit.rejected")
+                    .tag("route", route.getPath())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.learnreactivespring.learnreactivespring.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+//One token bucket per client key, kept as GCRA (generic cell rate algorithm): instead of a token count and a refill
+//timestamp a bucket only stores the "theoretical arrival time" of the next request, so taking a token is a single
+//CAS on a long, without locks and without a refill thread. A bucket whose arrival time is in the past is full.
+//  tat' = max(tat, now) + interval          interval = 1s / refillPerSecond
+//  allowed while tat' - now <= capacity * interval
+//The buckets live in a ConcurrentHashMap (lock free reads, per bin locking only when a key is added), the full ones
+//are dropped by evictIdle() so the map only holds the clients seen recently.
+public class TokenBucketRateLimiter {
+
+    //buckets shared by the keys seen while the map is full, a key always lands in the same one
+    private static final int OVERFLOW_STRIPES = 256;
+
+    private final int capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket[] overflow = new Bucket[OVERFLOW_STRIPES];
+
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000 / refillPerSecond));
+        this.burstNanos = capacity * intervalNanos;
+        this.maxKeys = maxKeys;
+        for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+            overflow[i] = new Bucket(Long.MIN_VALUE);  //full
+        }
+    }
+
+    //takes a token from the bucket of key -> the tokens left (>= 0),
+    //or minus the nanoseconds until the next token (< 0) when there was none
+    public long tryAcquire(String key, long nowNanos) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            //a flood of new keys (a botnet...) ends up in the overflow buckets instead of growing the map. Striped, so
+            //one flooding client only drains its own stripe and not the bucket of every client seen after it
+            bucket = buckets.size() < maxKeys
+                    ? buckets.computeIfAbsent(key, k -> new Bucket(nowNanos))
+                    : overflow[stripe(key)];
+        }
+        while (true) {
+            long tat = bucket.tat;
+            long next = Math.max(tat, nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return -(ahead - burstNanos);
+            }
+            if (Bucket.TAT.compareAndSet(bucket, tat, next)) {
+                return (burstNanos - ahead) / intervalNanos;
+            }
+        }
+    }
+
+    //drops the buckets which have been full for at least idleNanos. A request racing with the removal may still take
+    //its token from the dropped bucket, the client then gets one token for free, which is fine for a rate limit.
+    public int evictIdle(long nowNanos, long idleNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.tat <= nowNanos - idleNanos);
+        return before - buckets.size();
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (OVERFLOW_STRIPES - 1);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+        private static final VarHandle TAT;
+
+        static {
+            try {
+                TAT = MethodHandles.lookup().findVarHandle(Bucket.class, "tat", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        //no AtomicLong -> one object per key instead of two
+        private volatile long tat;
+
+        private Bucket(long nowNanos) {
+            this.tat = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.learnreactivespring.learnreactivespring.repository;
+
+import com.learnreactivespring.learnreactivespring.document.Item;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ItemReactiveRepository extends ReactiveMongoRepository<Item, String> {
+
+    //keyset ("cursor") paging: the next page starts after the last id of the previous one, so reading page 1000
+    //costs the same as reading page 1 (no skip over the documents in between)
+    Flux<Item> findByIdGreaterThanOrderByIdAsc(String id, Pageable pageable);
+
+    Flux<Item> findAllByOrderByIdAsc(Pageable pageable);
+
+    Flux<Item> findAllByOrderByIdAsc();
+}
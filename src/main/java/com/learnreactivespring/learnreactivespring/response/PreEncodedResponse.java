@@ -0,0 +1,69 @@
+package com.learnreactivespring.learnreactivespring.response;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+
+//A response body encoded once, kept in a read-only direct buffer together with its Content-Length and ETag.
+//Every request writes a duplicate() of that buffer: no encoding, no copy of the bytes, only a small view object
+//(a direct buffer also saves Netty the heap -> direct copy it does before writing to the socket).
+public final class PreEncodedResponse {
+
+    private final MediaType contentType;
+    private final ByteBuffer body;
+    private final String eTag;
+
+    PreEncodedResponse(MediaType contentType, byte[] bytes) {
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        this.contentType = contentType;
+        this.body = direct.asReadOnlyBuffer();
+        this.eTag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+    }
+
+    public Mono<ServerResponse> render(ServerRequest serverRequest) {
+        //If-None-Match with the current ETag -> 304 without a body
+        return serverRequest.checkNotModified(eTag)
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                        .contentType(contentType)
+                        .contentLength(body.remaining())
+                        .eTag(eTag)
+                        .body((outputMessage, context) -> outputMessage.writeWith(
+                                Mono.fromSupplier(() -> outputMessage.bufferFactory().wrap(body.duplicate()))))));
+    }
+
+    //the same for annotated controllers, which return this from a method taking the exchange
+    public Mono<Void> write(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (exchange.checkNotModified(eTag)) {
+            return response.setComplete();
+        }
+        response.getHeaders().setContentType(contentType);
+        response.getHeaders().setContentLength(body.remaining());
+        response.getHeaders().setETag(eTag);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body.duplicate())));
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    public int getContentLength() {
+        return body.remaining();
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    @Override
+    public String toString() {
+        return "PreEncodedResponse{" + contentType + ", " + body.remaining() + " bytes, " + eTag + "}";
+    }
+}
@@ -0,0 +1,54 @@
+package com.learnreactivespring.learnreactivespring.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+//Registry of static or rarely changing responses.
+//register() encodes the value once and returns a supplier of the encoded response, for the handler to keep in a field
+//(a plain read per request, no lookup by name). update() re-encodes it in place, requests already being written keep
+//the previous bytes.
+@Component
+public class PreEncodedResponses {
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, AtomicReference<PreEncodedResponse>> responses = new ConcurrentHashMap<>();
+
+    public PreEncodedResponses(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Supplier<PreEncodedResponse> register(String name, Object value, MediaType contentType) {
+        AtomicReference<PreEncodedResponse> response = new AtomicReference<>(encode(value, contentType));
+        responses.put(name, response);
+        return response::get;
+    }
+
+    public void update(String name, Object value) {
+        AtomicReference<PreEncodedResponse> response = responses.get(name);
+        if (response != null) {
+            response.set(encode(value, response.get().getContentType()));
+        }
+    }
+
+    public PreEncodedResponse encode(Object value, MediaType contentType) {
+        if (value instanceof CharSequence && !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            //plain text is written as it is, with the charset spelled out
+            return new PreEncodedResponse(new MediaType(contentType, StandardCharsets.UTF_8),
+                    value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            return new PreEncodedResponse(contentType, objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("Could not encode " + value, e);
+        }
+    }
+}
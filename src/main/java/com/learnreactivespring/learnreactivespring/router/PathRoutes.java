@@ -0,0 +1,41 @@
+package com.learnreactivespring.learnreactivespring.router;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+//Per route settings of the web filters (learnreactivespring.concurrency.routes, learnreactivespring.ratelimit.routes):
+//one entry per path pattern, in configuration order, the first matching pattern wins. PathPattern against the path
+//within the application, so it works for @GetMapping paths as well as RouterFunctionConfig routes.
+public final class PathRoutes<T> {
+
+    private final List<PathPattern> patterns = new ArrayList<>();
+    private final List<T> routes = new ArrayList<>();
+
+    public void add(String path, T route) {
+        patterns.add(PathPatternParser.defaultInstance.parse(path));
+        routes.add(route);
+    }
+
+    //null when no pattern matches
+    public T match(ServerWebExchange exchange) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return routes.get(i);
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return routes.isEmpty();
+    }
+
+    public void forEach(Consumer<? super T> action) {
+        routes.forEach(action);
+    }
+}
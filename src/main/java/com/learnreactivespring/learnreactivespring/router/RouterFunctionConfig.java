@@ -1,8 +1,20 @@
 package com.learnreactivespring.learnreactivespring.router;
 
+import com.learnreactivespring.learnreactivespring.codec.BinaryMediaTypes;
+import com.learnreactivespring.learnreactivespring.handler.BatchHandlerFunction;
+import com.learnreactivespring.learnreactivespring.handler.CachedHandlerFunctions;
+import com.learnreactivespring.learnreactivespring.handler.FileHandlerFunction;
+import com.learnreactivespring.learnreactivespring.handler.ItemHandler;
 import com.learnreactivespring.learnreactivespring.handler.SampleHandlerFunction;
+import com.learnreactivespring.learnreactivespring.handler.StreamingHandlerFunction;
+import com.learnreactivespring.learnreactivespring.startup.FastStartupInitializer;
+import com.learnreactivespring.learnreactivespring.stream.FrameCoalescer;
+import fromdocs.GreetingHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.server.RequestPredicates;
 import org.springframework.web.reactive.function.server.RouterFunction;
@@ -11,18 +23,98 @@ import org.springframework.web.reactive.function.server.ServerResponse;
 
 
 @Configuration
+@Import(GreetingHandler.class)  //lives outside of the component scan
+@Profile("!" + FastStartupInitializer.PROFILE)  //registered by FastStartupInitializer then, from the same methods
 public class RouterFunctionConfig {
 
     @Bean
-    public RouterFunction<ServerResponse> route(SampleHandlerFunction sampleHandlerFunction) {
+    public RouterFunction<ServerResponse> route(SampleHandlerFunction sampleHandlerFunction,
+                                                StreamingHandlerFunction streamingHandlerFunction,
+                                                CachedHandlerFunctions cachedHandlerFunctions,
+                                                BatchHandlerFunction batchHandlerFunction,
+                                                FileHandlerFunction fileHandlerFunction) {
         return RouterFunctions.route(
                 RequestPredicates.GET("/functional/flux")
                         .and(RequestPredicates.accept(MediaType.APPLICATION_JSON)),
                 sampleHandlerFunction::flux
+        ).andRoute(
+                RequestPredicates.GET("/functional/flux")
+                        .and(RequestPredicates.accept(BinaryMediaTypes.DOCUMENT_TYPES.toArray(new MediaType[0]))),
+                sampleHandlerFunction::fluxBinary
         ).andRoute(
                 RequestPredicates.GET("/functional/mono")
                         .and(RequestPredicates.accept(MediaType.APPLICATION_JSON)),
-                sampleHandlerFunction::mono
+                sampleHandlerFunction::mono     //repeat reads come from the read-through cache
+        ).andRoute(
+                RequestPredicates.GET("/functional/cache/stats"),
+                cachedHandlerFunctions::stats
+        ).andRoute(
+                //coalesced streams, the format is picked from the Accept header
+                RequestPredicates.GET("/functional/fluxstream")
+                        .and(RequestPredicates.accept(MediaType.TEXT_EVENT_STREAM)),
+                request -> streamingHandlerFunction.fluxStream(request, FrameCoalescer.Format.SSE)
+        ).andRoute(
+                RequestPredicates.GET("/functional/fluxstream")
+                        .and(RequestPredicates.accept(MediaType.APPLICATION_NDJSON)),
+                request -> streamingHandlerFunction.fluxStream(request, FrameCoalescer.Format.NDJSON)
+        ).andRoute(
+                RequestPredicates.GET("/functional/fluxinfinitestream")
+                        .and(RequestPredicates.accept(MediaType.TEXT_EVENT_STREAM)),
+                request -> streamingHandlerFunction.fluxInfiniteStream(request, FrameCoalescer.Format.SSE)
+        ).andRoute(
+                RequestPredicates.GET("/functional/fluxinfinitestream")
+                        .and(RequestPredicates.accept(MediaType.APPLICATION_NDJSON)),
+                request -> streamingHandlerFunction.fluxInfiniteStream(request, FrameCoalescer.Format.NDJSON)
+        ).andRoute(
+                //the same ticks summarized per window (?size=100, ?duration=10s or both)
+                RequestPredicates.GET("/functional/fluxinfinitestream/windows")
+                        .and(RequestPredicates.accept(MediaType.TEXT_EVENT_STREAM)),
+                request -> streamingHandlerFunction.fluxInfiniteStreamWindows(request, FrameCoalescer.Format.SSE)
+        ).andRoute(
+                RequestPredicates.GET("/functional/fluxinfinitestream/windows")
+                        .and(RequestPredicates.accept(MediaType.APPLICATION_NDJSON)),
+                request -> streamingHandlerFunction.fluxInfiniteStreamWindows(request, FrameCoalescer.Format.NDJSON)
+        ).andRoute(
+                //many /functional/mono and /functional/flux in one round trip, answered as NDJSON
+                RequestPredicates.POST("/functional/batch")
+                        .and(RequestPredicates.contentType(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)),
+                batchHandlerFunction::batch
+        ).andRoute(
+                //files of learnreactivespring.files.directory, zero-copy, with Range for resumable downloads
+                RequestPredicates.methods(HttpMethod.GET, HttpMethod.HEAD)
+                        .and(RequestPredicates.path("/functional/files/{*path}")),
+                fileHandlerFunction::file
+        );
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> greetingRoute(GreetingHandler greetingHandler) {
+        return RouterFunctions.route(
+                RequestPredicates.GET("/hello")
+                        .and(RequestPredicates.accept(MediaType.TEXT_PLAIN)),
+                greetingHandler::greetings
+        );
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> itemsRoute(ItemHandler itemHandler) {
+        return RouterFunctions.route(
+                RequestPredicates.GET("/functional/items"),
+                itemHandler::getAllItems
+        ).andRoute(
+                RequestPredicates.GET("/functional/items/{id}"),
+                itemHandler::getOneItem
+        ).andRoute(
+                RequestPredicates.POST("/functional/items")
+                        .and(RequestPredicates.contentType(MediaType.APPLICATION_JSON)),
+                itemHandler::createItem
+        ).andRoute(
+                RequestPredicates.PUT("/functional/items/{id}")
+                        .and(RequestPredicates.contentType(MediaType.APPLICATION_JSON)),
+                itemHandler::updateItem
+        ).andRoute(
+                RequestPredicates.DELETE("/functional/items/{id}"),
+                itemHandler::deleteItem
         );
     }
 }
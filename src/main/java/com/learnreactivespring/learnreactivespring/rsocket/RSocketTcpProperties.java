@@ -0,0 +1,16 @@
+package com.learnreactivespring.learnreactivespring.rsocket;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+//The WebSocket transport is Spring Boot's own (spring.rsocket.server.mapping-path on the WebFlux port), Boot can only
+//run one RSocket transport at a time, the TCP server next to it is configured here.
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.rsocket.tcp")
+public class RSocketTcpProperties {
+
+    private boolean enabled = true;
+
+    //0 -> any free port, see local.rsocket.server.port
+    private int port = 7000;
+}
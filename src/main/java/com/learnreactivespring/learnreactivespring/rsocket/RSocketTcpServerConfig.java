@@ -0,0 +1,34 @@
+package com.learnreactivespring.learnreactivespring.rsocket;
+
+import io.rsocket.frame.decoder.PayloadDecoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.context.RSocketServerBootstrap;
+import org.springframework.boot.rsocket.netty.NettyRSocketServerFactory;
+import org.springframework.boot.rsocket.server.RSocketServer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+
+import java.util.Collections;
+
+//RSocket over plain TCP, answered by the same RSocketMessageHandler (and so the same @MessageMapping methods) as the
+//WebSocket transport on /rsocket. Started and stopped with the context like Boot's own RSocket server.
+@Configuration
+@EnableConfigurationProperties(RSocketTcpProperties.class)
+@ConditionalOnProperty(prefix = "learnreactivespring.rsocket.tcp", name = "enabled", matchIfMissing = true)
+public class RSocketTcpServerConfig {
+
+    @Bean
+    public RSocketServerBootstrap rSocketTcpServerBootstrap(RSocketTcpProperties properties, RSocketMessageHandler messageHandler) {
+        NettyRSocketServerFactory factory = new NettyRSocketServerFactory();
+        factory.setTransport(RSocketServer.Transport.TCP);
+        factory.setPort(properties.getPort());
+        //like Boot does for its own server: with Netty buffers the payloads are decoded without being copied first
+        if (messageHandler.getRSocketStrategies().dataBufferFactory() instanceof NettyDataBufferFactory) {
+            factory.setRSocketServerCustomizers(Collections.singletonList(server -> server.payloadDecoder(PayloadDecoder.ZERO_COPY)));
+        }
+        return new RSocketServerBootstrap(factory, messageHandler.responder());
+    }
+}
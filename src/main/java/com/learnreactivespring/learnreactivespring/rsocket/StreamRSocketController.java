@@ -0,0 +1,66 @@
+package com.learnreactivespring.learnreactivespring.rsocket;
+
+import com.learnreactivespring.learnreactivespring.batch.SubRequest;
+import com.learnreactivespring.learnreactivespring.batch.SubResponse;
+import com.learnreactivespring.learnreactivespring.controller.FluxAndMonoController;
+import com.learnreactivespring.learnreactivespring.handler.BatchHandlerFunction;
+import com.learnreactivespring.learnreactivespring.handler.SampleHandlerFunction;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//The publishers of FluxAndMonoController and SampleHandlerFunction over RSocket (TCP and WebSocket on /rsocket).
+//Mono -> request-response, Flux -> request-stream, Flux in and out -> channel. No HTTP framing, and the request(n)
+//frames of the client are the demand of these publishers: a slow consumer is backpressured up to the shared ticker,
+//where its overflow policy applies, exactly like a slow HTTP client.
+@Controller
+public class StreamRSocketController {
+
+    private final FluxAndMonoController fluxAndMonoController;
+    private final SampleHandlerFunction sampleHandlerFunction;
+    private final BatchHandlerFunction batchHandlerFunction;
+
+    public StreamRSocketController(FluxAndMonoController fluxAndMonoController, SampleHandlerFunction sampleHandlerFunction,
+                                   BatchHandlerFunction batchHandlerFunction) {
+        this.fluxAndMonoController = fluxAndMonoController;
+        this.sampleHandlerFunction = sampleHandlerFunction;
+        this.batchHandlerFunction = batchHandlerFunction;
+    }
+
+    @MessageMapping("mono")
+    public Mono<Integer> mono() {
+        return fluxAndMonoController.monoValue();
+    }
+
+    @MessageMapping("flux")
+    public Flux<Integer> flux() {
+        return fluxAndMonoController.returnFlux();
+    }
+
+    @MessageMapping("fluxstream")
+    public Flux<Integer> fluxStream() {
+        return fluxAndMonoController.returnFluxStream();
+    }
+
+    @MessageMapping("fluxinfinitestream")
+    public Flux<Long> fluxInfiniteStream() {
+        return fluxAndMonoController.returnFluxInfiniteStream();
+    }
+
+    @MessageMapping("functional-mono")
+    public Mono<Integer> functionalMono() {
+        return sampleHandlerFunction.monoValue();
+    }
+
+    @MessageMapping("functional-flux")
+    public Flux<Integer> functionalFlux() {
+        return sampleHandlerFunction.fluxValues();
+    }
+
+    //channel: the same sub-requests as POST /functional/batch, but on one long lived stream in both directions
+    @MessageMapping("batch")
+    public Flux<SubResponse> batch(Flux<SubRequest> subRequests) {
+        return batchHandlerFunction.dispatch(subRequests);
+    }
+}
@@ -0,0 +1,234 @@
+package com.learnreactivespring.learnreactivespring.scheduling;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+//Reactor Scheduler whose timers live in a Netty HashedWheelTimer: adding and cancelling a timer is O(1) and the memory
+//per pending timer is one small Timeout, where the ScheduledThreadPoolExecutor behind Schedulers.parallel() keeps a
+//heap of ScheduledFutures (O(log n), and a lot of contention with many delayed streams).
+//The wheel thread only does the timing, every expired task is handed to the executing scheduler (and a Worker to one of
+//its Workers), so a slow task never delays the other timers and the tasks of one Worker stay serialized.
+public class HashedWheelScheduler implements Scheduler {
+
+    private final HashedWheelTimer wheel;
+    private final Scheduler executing;
+    private volatile boolean disposed;
+
+    public HashedWheelScheduler(Duration tickDuration, int ticksPerWheel, Scheduler executing) {
+        this.wheel = new HashedWheelTimer(runnable -> {
+            Thread thread = new Thread(runnable, "hashed-wheel-timer");
+            thread.setDaemon(true);
+            return thread;
+        }, tickDuration.toNanos(), TimeUnit.NANOSECONDS, ticksPerWheel, false);
+        this.executing = executing;
+    }
+
+    @Override
+    public Disposable schedule(Runnable task) {
+        return executing.schedule(task);
+    }
+
+    @Override
+    public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        return new WheelTask(task, executing::schedule).start(delay, unit);
+    }
+
+    @Override
+    public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return new PeriodicWheelTask(task, executing::schedule, unit.toNanos(period)).start(initialDelay, unit);
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new WheelWorker(executing.createWorker());
+    }
+
+    @Override
+    public void start() {
+        wheel.start();
+    }
+
+    //only stops the wheel, the executing scheduler is usually a shared one and belongs to whoever created it
+    @Override
+    public void dispose() {
+        if (!disposed) {
+            disposed = true;
+            wheel.stop();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private final class WheelWorker implements Worker {
+        private final Worker executingWorker;
+        private final Disposable.Composite tasks = Disposables.composite();
+
+        private WheelWorker(Worker executingWorker) {
+            this.executingWorker = executingWorker;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            return executingWorker.schedule(task);
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            return track(new WheelTask(task, executingWorker::schedule)).start(delay, unit);
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return track(new PeriodicWheelTask(task, executingWorker::schedule, unit.toNanos(period))).start(initialDelay, unit);
+        }
+
+        private WheelTask track(WheelTask wheelTask) {
+            if (!tasks.add(wheelTask)) {
+                throw new RejectedExecutionException("Worker disposed");
+            }
+            wheelTask.owner = tasks;
+            return wheelTask;
+        }
+
+        @Override
+        public void dispose() {
+            tasks.dispose();    //cancels the pending timeouts
+            executingWorker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return tasks.isDisposed();
+        }
+    }
+
+    private class WheelTask implements TimerTask, Disposable {
+        final Runnable task;
+        final Function<Runnable, Disposable> executor;
+        Disposable.Composite owner; //the worker which tracks this task, if any
+        volatile Timeout timeout;
+        volatile Disposable execution;
+        volatile boolean disposed;
+
+        WheelTask(Runnable task, Function<Runnable, Disposable> executor) {
+            this.task = task;
+            this.executor = executor;
+        }
+
+        WheelTask start(long delay, TimeUnit unit) {
+            arm(unit.toNanos(delay));
+            return this;
+        }
+
+        //a due task skips the wheel, it would otherwise wait for the next tick
+        void arm(long delayNanos) {
+            if (HashedWheelScheduler.this.disposed) {
+                done();
+                throw new RejectedExecutionException("Scheduler disposed");
+            }
+            if (delayNanos <= 0) {
+                run(null);
+                return;
+            }
+            try {
+                timeout = wheel.newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (IllegalStateException e) {
+                //stopped in between, same contract as the check above
+                done();
+                throw new RejectedExecutionException("Scheduler disposed", e);
+            }
+        }
+
+        @Override
+        public void run(Timeout expired) {
+            if (disposed) {
+                return;
+            }
+            try {
+                execution = executor.apply(this::execute);
+            } catch (RejectedExecutionException e) {
+                //the executing scheduler or worker is gone, nothing left to run the task on
+            }
+        }
+
+        void execute() {
+            try {
+                task.run();
+            } finally {
+                done();
+            }
+        }
+
+        void done() {
+            if (owner != null) {
+                owner.remove(this);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            Timeout pending = timeout;
+            if (pending != null) {
+                pending.cancel();
+            }
+            Disposable running = execution;
+            if (running != null) {
+                running.dispose();
+            }
+            done();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    //fixed rate: the next deadline is computed from the first one, so the period does not drift with the wheel ticks
+    private final class PeriodicWheelTask extends WheelTask {
+        private final long periodNanos;
+        private long nextDeadline;
+
+        PeriodicWheelTask(Runnable task, Function<Runnable, Disposable> executor, long periodNanos) {
+            super(task, executor);
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        WheelTask start(long delay, TimeUnit unit) {
+            nextDeadline = System.nanoTime() + unit.toNanos(delay);
+            return super.start(delay, unit);
+        }
+
+        @Override
+        void execute() {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                done(); //like ScheduledExecutorService, a failing periodic task is not run again
+                throw e;
+            }
+            if (!disposed) {
+                nextDeadline += periodNanos;
+                try {
+                    arm(nextDeadline - System.nanoTime());
+                } catch (RejectedExecutionException e) {
+                    //the scheduler was disposed, the task just stops like the ones still on the wheel
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.learnreactivespring.learnreactivespring.scheduling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.scheduling")
+public class TimerSchedulerProperties {
+
+    private TimerStrategy timer = TimerStrategy.PARALLEL;
+
+    private Wheel wheel = new Wheel();
+
+    //only used by HASHED_WHEEL and VIRTUAL_THREADS
+    @Data
+    public static class Wheel {
+        //timers fire up to one tick late, the wheel thread wakes up once per tick
+        private Duration tickDuration = Duration.ofMillis(10);
+        //rounded up to a power of 2 by netty, tick-duration * ticks-per-wheel should cover the usual delays
+        private int ticksPerWheel = 512;
+    }
+}
@@ -0,0 +1,93 @@
+package com.learnreactivespring.learnreactivespring.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//The scheduler behind the timers of the streaming endpoints (delayElements, the shared interval, the coalescing
+//timeouts and heartbeats), picked with learnreactivespring.scheduling.timer. Everything timed goes through timer(),
+//so switching the strategy switches all of them.
+//Reactor's own schedulers are looked up on every timer() call instead of being kept: they are what
+//VirtualTimeScheduler.getOrSet() replaces, so a stream assembled inside StepVerifier.withVirtualTime gets the virtual
+//clock. That needs the PARALLEL or BOUNDED_ELASTIC strategy, the wheel is an instance of its own.
+@Slf4j
+@Component
+@EnableConfigurationProperties(TimerSchedulerProperties.class)
+public class TimerSchedulers implements DisposableBean {
+
+    private final TimerSchedulerProperties properties;
+    private final ExecutorService virtualThreads;   //only for VIRTUAL_THREADS on JDK 21+, null otherwise
+    private final TimerStrategy strategy;
+    private final Scheduler timer;  //only the wheel strategies, null for Reactor's schedulers
+
+    public TimerSchedulers(TimerSchedulerProperties properties) {
+        this.properties = properties;
+        this.virtualThreads = properties.getTimer() == TimerStrategy.VIRTUAL_THREADS ? virtualThreadPerTaskExecutor() : null;
+        if (properties.getTimer() == TimerStrategy.VIRTUAL_THREADS && virtualThreads == null) {
+            log.warn("Virtual threads need JDK 21+ (running on {}), using boundedElastic for the timers",
+                    System.getProperty("java.version"));
+            this.strategy = TimerStrategy.BOUNDED_ELASTIC;
+        } else {
+            this.strategy = properties.getTimer();
+        }
+        this.timer = create(strategy);
+    }
+
+    public Scheduler timer() {
+        switch (strategy) {
+            case PARALLEL:
+                return Schedulers.parallel();
+            case BOUNDED_ELASTIC:
+                return Schedulers.boundedElastic();
+            default:
+                return timer;
+        }
+    }
+
+    //the strategy actually in use, VIRTUAL_THREADS falls back to BOUNDED_ELASTIC on older JDKs
+    public TimerStrategy strategy() {
+        return strategy;
+    }
+
+    private Scheduler create(TimerStrategy strategy) {
+        switch (strategy) {
+            case HASHED_WHEEL:
+                return wheel(Schedulers.parallel());
+            case VIRTUAL_THREADS:
+                //trampolined -> the tasks of one Worker still run one after the other
+                return wheel(Schedulers.fromExecutor(virtualThreads, true));
+            default:
+                return null;
+        }
+    }
+
+    private Scheduler wheel(Scheduler executing) {
+        return new HashedWheelScheduler(properties.getWheel().getTickDuration(), properties.getWheel().getTicksPerWheel(), executing);
+    }
+
+    //parallel and boundedElastic are Reactor's shared schedulers, only what was created here is disposed
+    @Override
+    public void destroy() {
+        if (timer != null) {
+            timer.dispose();
+        }
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+
+    //Executors.newVirtualThreadPerTaskExecutor() through reflection, the project still compiles for Java 11
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.learnreactivespring.learnreactivespring.scheduling;
+
+//Which scheduler runs the delayElements / interval timers of the streaming endpoints.
+public enum TimerStrategy {
+    //Schedulers.parallel(): one ScheduledThreadPoolExecutor per core, O(log n) per timer (Reactor's default)
+    PARALLEL,
+    //Schedulers.boundedElastic(): same timer queues but on threads that may block
+    BOUNDED_ELASTIC,
+    //Netty HashedWheelTimer: O(1) per timer, precision of one wheel tick, the expired tasks run on Schedulers.parallel()
+    HASHED_WHEEL,
+    //the hashed wheel for the timing and one virtual thread per expired task (JDK 21+, boundedElastic otherwise)
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,27 @@
+package com.learnreactivespring.learnreactivespring.server;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpUtil;
+
+//One per connection, between the HTTP codec and Reactor Netty's traffic handler: the request which reaches the limit is marked "Connection: close",
+//so Reactor Netty answers it with Connection: close and closes the connection once the response is written.
+//Spreads long lived client connections over the server instances behind a load balancer.
+class KeepAliveLimitHandler extends ChannelInboundHandlerAdapter {
+
+    private final int maxRequests;
+    private int requests;
+
+    KeepAliveLimitHandler(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest && ++requests >= maxRequests) {
+            HttpUtil.setKeepAlive((HttpRequest) msg, false);
+        }
+        ctx.fireChannelRead(msg);
+    }
+}
@@ -0,0 +1,51 @@
+package com.learnreactivespring.learnreactivespring.server;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//Knobs of the Reactor Netty HTTP server, applied by NettyServerTuning. Everything left unset keeps the
+//Reactor Netty / Spring Boot default.
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.netty")
+public class NettyServerProperties {
+
+    private EventLoop eventLoop = new EventLoop();
+
+    private Allocator allocator = Allocator.DEFAULT;
+
+    //small writes (one stream element) go out right away instead of waiting for the ACK of the previous segment
+    private boolean tcpNoDelay = true;
+
+    //pending connections the kernel queues before accept, null keeps Netty's default (net.core.somaxconn)
+    private Integer soBacklog;
+
+    //HTTP11 and/or H2C (HTTP/2 without TLS, by prior knowledge or Upgrade), empty keeps server.http2.enabled's choice
+    private List<HttpProtocol> protocols = new ArrayList<>();
+
+    //closes a keep-alive connection after this long without a request, null never closes it
+    private Duration idleTimeout;
+
+    //requests served on one HTTP/1.1 connection before it is closed (Connection: close), 0 for no limit
+    private int maxKeepAliveRequests = 0;
+
+    @Data
+    public static class EventLoop {
+        //0 keeps the shared Reactor Netty loops (reactor.netty.ioWorkerCount, by default as many as cores, at least 4)
+        private int workerThreads = 0;
+        //0 accepts the connections on the worker threads, > 0 gives accepting threads of its own
+        private int selectThreads = 0;
+        //epoll on Linux (kqueue on macOS) when the native transport is on the classpath, NIO otherwise
+        private boolean preferNative = true;
+    }
+
+    public enum Allocator {
+        DEFAULT,    //Netty's default, pooled unless -Dio.netty.allocator.type=unpooled
+        POOLED,
+        UNPOOLED
+    }
+}
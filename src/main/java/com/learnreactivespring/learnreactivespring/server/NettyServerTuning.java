@@ -0,0 +1,90 @@
+package com.learnreactivespring.learnreactivespring.server;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.stereotype.Component;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+//Applies learnreactivespring.netty.* to the HTTP server Spring Boot builds (NettyReactiveWebServerFactory picks up
+//every NettyServerCustomizer bean, after its own server.* settings, so these win).
+//With event-loop threads configured (or the native transport turned off) the server gets loops of its own, disposed
+//with the application, the WebClient and the RSocket TCP server keep the shared ones.
+@Component
+@EnableConfigurationProperties(NettyServerProperties.class)
+public class NettyServerTuning implements NettyServerCustomizer, DisposableBean {
+
+    private static final String KEEP_ALIVE_LIMIT = "learnreactivespring.keepAliveLimit";
+
+    private final NettyServerProperties properties;
+    private final LoopResources loopResources;  //null -> the shared Reactor Netty loops
+
+    public NettyServerTuning(NettyServerProperties properties) {
+        this.properties = properties;
+        NettyServerProperties.EventLoop eventLoop = properties.getEventLoop();
+        int workerThreads = eventLoop.getWorkerThreads() > 0 ? eventLoop.getWorkerThreads() : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        if (eventLoop.getWorkerThreads() <= 0 && eventLoop.getSelectThreads() <= 0 && eventLoop.isPreferNative()) {
+            this.loopResources = null;
+        } else if (eventLoop.getSelectThreads() > 0) {
+            this.loopResources = LoopResources.create("learnreactivespring-http", eventLoop.getSelectThreads(), workerThreads, true);
+        } else {
+            this.loopResources = LoopResources.create("learnreactivespring-http", workerThreads, true);
+        }
+    }
+
+    @Override
+    public HttpServer apply(HttpServer httpServer) {
+        NettyServerProperties.EventLoop eventLoop = properties.getEventLoop();
+        if (loopResources != null) {
+            httpServer = httpServer.runOn(loopResources, eventLoop.isPreferNative());
+        }
+
+        switch (properties.getAllocator()) {
+            case POOLED:
+                httpServer = httpServer.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+                break;
+            case UNPOOLED:
+                httpServer = httpServer.childOption(ChannelOption.ALLOCATOR, UnpooledByteBufAllocator.DEFAULT);
+                break;
+            default:
+                break;
+        }
+
+        httpServer = httpServer.childOption(ChannelOption.TCP_NODELAY, properties.isTcpNoDelay());
+        if (properties.getSoBacklog() != null) {
+            httpServer = httpServer.option(ChannelOption.SO_BACKLOG, properties.getSoBacklog());
+        }
+        if (!properties.getProtocols().isEmpty()) {
+            httpServer = httpServer.protocol(properties.getProtocols().toArray(new HttpProtocol[0]));
+        }
+        if (properties.getIdleTimeout() != null) {
+            httpServer = httpServer.idleTimeout(properties.getIdleTimeout());
+        }
+        if (properties.getMaxKeepAliveRequests() > 0) {
+            int maxRequests = properties.getMaxKeepAliveRequests();
+            //runs after Reactor Netty set up the pipeline, the handler has to see the requests before its traffic handler
+            //decides about keep-alive (with H2C the HTTP/1.1 codec only shows up later, the traffic handler is there)
+            httpServer = httpServer.doOnChannelInit((observer, channel, remoteAddress) -> {
+                ChannelPipeline pipeline = channel.pipeline();
+                if (pipeline.get(NettyPipeline.HttpTrafficHandler) != null) {
+                    pipeline.addBefore(NettyPipeline.HttpTrafficHandler, KEEP_ALIVE_LIMIT, new KeepAliveLimitHandler(maxRequests));
+                }
+            });
+        }
+        return httpServer;
+    }
+
+    @Override
+    public void destroy() {
+        if (loopResources != null) {
+            loopResources.disposeLater().block();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.learnreactivespring.learnreactivespring.startup;
+
+import com.learnreactivespring.learnreactivespring.handler.BatchHandlerFunction;
+import com.learnreactivespring.learnreactivespring.handler.CachedHandlerFunctions;
+import com.learnreactivespring.learnreactivespring.handler.FileHandlerFunction;
+import com.learnreactivespring.learnreactivespring.handler.ItemHandler;
+import com.learnreactivespring.learnreactivespring.handler.SampleHandlerFunction;
+import com.learnreactivespring.learnreactivespring.handler.StreamingHandlerFunction;
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponses;
+import com.learnreactivespring.learnreactivespring.router.RouterFunctionConfig;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
+import fromdocs.GreetingHandler;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.reactive.function.server.RouterFunction;
+
+//With the fast-startup profile (see application-fast-startup.properties) the functional routes and SampleHandlerFunction
+//are registered here, as plain suppliers: no @Configuration class to parse and proxy, no @Bean methods or constructors
+//to resolve by reflection. RouterFunctionConfig and SampleHandlerFunction step aside with @Profile("!fast-startup").
+//The profile also turns on lazy initialization, minus the route beans and the controllers, so the first request does
+//not pay for building them.
+//Registered in META-INF/spring.factories, does nothing without the profile.
+public class FastStartupInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    public static final String PROFILE = "fast-startup";
+
+    @Override
+    public void initialize(ConfigurableApplicationContext applicationContext) {
+        if (!(applicationContext instanceof GenericApplicationContext)
+                || !applicationContext.getEnvironment().acceptsProfiles(Profiles.of(PROFILE))) {
+            return;
+        }
+        GenericApplicationContext context = (GenericApplicationContext) applicationContext;
+        RouterFunctionConfig routes = new RouterFunctionConfig();   //only the route definitions, its methods use nothing else
+
+        context.registerBean(GreetingHandler.class, () -> new GreetingHandler(context.getBean(PreEncodedResponses.class)));
+        context.registerBean(SampleHandlerFunction.class,
+                () -> new SampleHandlerFunction(context.getBean(SignalTracing.class), context.getBean(StreamMetrics.class),
+                        context.getBean(CachedHandlerFunctions.class)));
+        context.registerBean("route", RouterFunction.class, () -> routes.route(
+                context.getBean(SampleHandlerFunction.class),
+                context.getBean(StreamingHandlerFunction.class),
+                context.getBean(CachedHandlerFunctions.class),
+                context.getBean(BatchHandlerFunction.class),
+                context.getBean(FileHandlerFunction.class)));
+        context.registerBean("greetingRoute", RouterFunction.class, () -> routes.greetingRoute(context.getBean(GreetingHandler.class)));
+        context.registerBean("itemsRoute", RouterFunction.class, () -> routes.itemsRoute(context.getBean(ItemHandler.class)));
+
+        context.registerBean(LazyInitializationExcludeFilter.class, () -> (beanName, beanDefinition, beanType) ->
+                RouterFunction.class.isAssignableFrom(beanType) || AnnotatedElementUtils.hasAnnotation(beanType, Controller.class));
+    }
+}
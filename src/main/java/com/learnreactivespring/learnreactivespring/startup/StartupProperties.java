@@ -0,0 +1,14 @@
+package com.learnreactivespring.learnreactivespring.startup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.startup")
+public class StartupProperties {
+
+    //send one request to training-path once started, then exit (used to record the AppCDS archive, see pom.xml)
+    private boolean trainingRun = false;
+
+    private String trainingPath = "/functional/mono";
+}
@@ -0,0 +1,38 @@
+package com.learnreactivespring.learnreactivespring.startup;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+//Starts, serves one request and exits, so the JVM can record every class a started application and its first request
+//load (-XX:ArchiveClassesAtExit, see the fast-startup profile in pom.xml).
+@Component
+@EnableConfigurationProperties(StartupProperties.class)
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final StartupProperties properties;
+
+    public TrainingRun(StartupProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!properties.isTrainingRun()) {
+            return;
+        }
+        String port = event.getApplicationContext().getEnvironment().getRequiredProperty("local.server.port");
+        WebClient.create("http://localhost:" + port).get().uri(properties.getTrainingPath())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .toBodilessEntity()
+                .block(Duration.ofSeconds(30));
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.stream.coalescing")
+public class CoalescingProperties {
+
+    //a batch is written as soon as it holds maxElements elements...
+    private int maxElements = 64;
+
+    //...or when maxDelay has passed since its first element, whatever comes first
+    private Duration maxDelay = Duration.ofMillis(50);
+
+    //comment frame written when nothing else was written for that long, keeps proxies from closing idle connections
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
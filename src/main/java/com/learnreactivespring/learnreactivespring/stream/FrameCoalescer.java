@@ -0,0 +1,113 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Turns a stream of elements into SSE or NDJSON frames, packing all the elements which arrive within the coalescing
+//window into ONE DataBuffer. Every DataBuffer emitted here is meant to be written and flushed on its own, so a batch
+//costs one write/flush (one syscall, one TCP frame) instead of one per element. Ordering is kept because bufferTimeout
+//never reorders.
+@Component
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class FrameCoalescer {
+
+    public enum Format {
+        SSE(MediaType.TEXT_EVENT_STREAM, "data:", "\n\n", ":heartbeat\n\n"),
+        NDJSON(MediaType.APPLICATION_NDJSON, "", "\n", "\n");  //whitespace between JSON values is ignored by NDJSON readers
+
+        private final MediaType mediaType;
+        private final byte[] prefix;
+        private final byte[] suffix;
+        private final byte[] heartbeat;
+
+        Format(MediaType mediaType, String prefix, String suffix, String heartbeat) {
+            this.mediaType = mediaType;
+            this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+            this.suffix = suffix.getBytes(StandardCharsets.UTF_8);
+            this.heartbeat = heartbeat.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+
+    //exchange attribute of the responses written from coalesce(), these are batched already (see CompressedStreamFlushFilter)
+    public static final String COALESCED_ATTRIBUTE = FrameCoalescer.class.getName() + ".COALESCED";
+
+    private final CoalescingProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Scheduler timer;  //runs the coalescing timeouts and heartbeats, see learnreactivespring.scheduling.timer
+
+    public FrameCoalescer(CoalescingProperties properties, ObjectMapper objectMapper, TimerSchedulers timerSchedulers) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.timer = timerSchedulers.timer();
+    }
+
+    public Flux<DataBuffer> coalesce(Flux<?> elements, Format format, DataBufferFactory bufferFactory) {
+        return Flux.defer(() -> {
+            AtomicLong lastWriteNanos = new AtomicLong(timer.now(TimeUnit.NANOSECONDS));
+            long heartbeatNanos = properties.getHeartbeat().toNanos();
+
+            return elements
+                    .bufferTimeout(properties.getMaxElements(), properties.getMaxDelay(), timer)
+                    .publish(batches -> Flux.merge(
+                            batches.map(batch -> {
+                                lastWriteNanos.set(timer.now(TimeUnit.NANOSECONDS));
+                                return encode(batch, format, bufferFactory);
+                            }),
+                            //heartbeats only on idle connections, and only until the data completes
+                            Flux.interval(properties.getHeartbeat(), timer)
+                                    .filter(tick -> timer.now(TimeUnit.NANOSECONDS) - lastWriteNanos.get() >= heartbeatNanos)
+                                    .map(tick -> {
+                                        lastWriteNanos.set(timer.now(TimeUnit.NANOSECONDS));
+                                        return bufferFactory.wrap(format.heartbeat);
+                                    })
+                                    .takeUntilOther(batches.then())));
+        });
+    }
+
+    private DataBuffer encode(List<?> batch, Format format, DataBufferFactory bufferFactory) {
+        List<byte[]> encoded = new ArrayList<>(batch.size());
+        int size = 0;
+        for (Object element : batch) {
+            byte[] json = toJson(element);
+            encoded.add(json);
+            size += format.prefix.length + json.length + format.suffix.length;
+        }
+
+        DataBuffer buffer = bufferFactory.allocateBuffer(size);
+        for (byte[] json : encoded) {
+            buffer.write(format.prefix).write(json).write(format.suffix);
+        }
+        return buffer;
+    }
+
+    private byte[] toJson(Object element) {
+        if (element instanceof Number) {
+            //the numeric feeds are the hot ones, no need to go through Jackson for them
+            return element.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(element);
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("Could not encode " + element, e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import java.util.Arrays;
+
+//Counts of long values in logarithmic buckets, a fixed long[960] whatever the number of values recorded.
+//0..15 get a bucket each, above that every power of 2 is split into 16 buckets, so a percentile read back is off by at
+//most 1/32 of its value (the middle of a bucket 1/16 wide). Meant for non-negative values (ticks, sizes, latencies),
+//negative ones land in the bucket of 0.
+//Not thread safe, one histogram per window (see WindowAccumulator).
+public class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    //values < 16 are exact, then 16 buckets for each magnitude 4..62
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+
+    public void record(long value) {
+        counts[index(value)]++;
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    //percentile in 0..1, e.g. 0.99 -> the value 99% of the recorded ones are below or equal to (within 1/32), 0 if empty
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return middle(index);
+            }
+        }
+        return middle(BUCKETS - 1);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);    //>= SUB_BUCKET_BITS
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((magnitude - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    static long middle(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = (index >> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long width = 1L << (magnitude - SUB_BUCKET_BITS);
+        long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << (magnitude - SUB_BUCKET_BITS);
+        return lowest + (width >> 1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//The last "capacity" values of a feed, numbered 0, 1, 2... in the order they were appended.
+//A fixed ring of longs, on the heap or in a direct buffer, so the memory it holds is known upfront and appending
+//allocates nothing. One writer (the feed), any number of readers: a reader copies the slots it wants and then checks
+//whether the writer lapped it meanwhile, the slots that may have been overwritten are dropped from the copy.
+public final class LongReplayBuffer {
+
+    private final LongBuffer slots;
+    private final int mask;
+    private volatile long next;     //sequence of the next append, only ever written by the writer
+
+    //capacity is rounded down to a power of 2
+    public LongReplayBuffer(int capacity, boolean offHeap) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, was " + capacity);
+        }
+        int slotCount = Integer.highestOneBit(capacity);
+        this.slots = offHeap
+                ? ByteBuffer.allocateDirect(slotCount * Long.BYTES).asLongBuffer()
+                : LongBuffer.allocate(slotCount);
+        this.mask = slotCount - 1;
+    }
+
+    //single writer only, returns the sequence given to the value
+    public long append(long value) {
+        long sequence = next;
+        slots.put((int) (sequence & mask), value);
+        next = sequence + 1;    //volatile write, publishes the slot
+        return sequence;
+    }
+
+    public long nextSequence() {
+        return next;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    //The values from sequence "from" (inclusive) up to "to" (exclusive) that are still in the ring, oldest first.
+    //Sequences that were already overwritten are missing from the start of the list, the caller sees it as a gap.
+    public List<SequencedValue> range(long from, long to) {
+        long end = Math.min(to, next);
+        long start = Math.max(Math.max(from, 0), end - capacity());
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        long[] copy = new long[(int) (end - start)];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = slots.get((int) ((start + i) & mask));
+        }
+        VarHandle.loadLoadFence();  //the slot reads above must not move past the re-read of next
+        //the append of "next" may be halfway, so its slot (next - capacity) counts as overwritten too
+        long firstIntact = Math.max(start, next + 1 - capacity());
+        List<SequencedValue> values = new ArrayList<>((int) Math.max(0, end - firstIntact));
+        for (long sequence = firstIntact; sequence < end; sequence++) {
+            values.add(new SequencedValue(sequence, copy[(int) (sequence - start)]));
+        }
+        return values;
+    }
+}
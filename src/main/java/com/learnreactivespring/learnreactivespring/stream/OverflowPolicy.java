@@ -0,0 +1,8 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+//What happens when a subscriber of a shared stream is slower than the stream and its buffer is full.
+public enum OverflowPolicy {
+    DROP_OLDEST,    //evict the oldest buffered element to make room for the new one
+    DROP_LATEST,    //drop the new element, keep what is already buffered
+    DISCONNECT      //error the subscriber -> the HTTP connection of the slow consumer is closed
+}
@@ -0,0 +1,11 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import lombok.Value;
+
+//An element of a replayable feed and its position in it, the position is what goes out as the SSE id
+@Value
+public class SequencedValue {
+
+    long sequence;
+    long value;
+}
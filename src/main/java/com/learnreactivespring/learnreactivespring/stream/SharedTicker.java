@@ -0,0 +1,113 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+//One hot Flux.interval shared by every subscriber of /fluxinfinitestream, instead of one timer per client.
+//The interval is started by the first subscriber and stopped when the last one cancels (refCount), so the load on the
+//scheduler is one periodic task no matter how many clients are connected.
+//Each subscriber gets its own bounded buffer, so a slow client can not hold back the others (publish() only emits
+//when every subscriber has demand, the per subscriber buffer makes sure that is always the case).
+//Every tick is numbered on one timeline that keeps going across restarts of the interval, and the recent ones are kept
+//in a LongReplayBuffer so a client that reconnects with a Last-Event-ID can be resumed where it stopped.
+@Component
+@EnableConfigurationProperties(TickerProperties.class)
+public class SharedTicker {
+
+    private final TickerProperties properties;
+    private final LongReplayBuffer replayBuffer;
+    private final Flux<Long> sharedTicks;
+
+    public SharedTicker(TickerProperties properties, TimerSchedulers timerSchedulers) {
+        this.properties = properties;
+        TickerProperties.Replay replay = properties.getReplay();
+        //never smaller than what a subscriber may have buffered, or live ticks could be overwritten before they are sent
+        long capacity = Math.max(replay.getMaxSize().toBytes() / Long.BYTES, 2L * properties.getBufferSize());
+        this.replayBuffer = new LongReplayBuffer((int) Math.min(capacity, 1 << 27), replay.isOffHeap());
+        this.sharedTicks = Flux.interval(properties.getPeriod(), timerSchedulers.timer())
+                //the interval's own count restarts with it, the replay buffer's does not. For the ticker the value is
+                //the tick number itself. Appended before the drop below, so even ticks nobody had demand for are kept
+                .map(intervalTick -> replayBuffer.append(replayBuffer.nextSequence()))
+                .onBackpressureDrop()   //never error the timer itself
+                .publish()
+                .refCount();
+    }
+
+    //Ticks numbered from 0 for every subscriber, like a private Flux.interval would be.
+    //Gaps in the numbering mean ticks were dropped by the overflow policy.
+    public Flux<Long> ticks() {
+        //numbered before the buffer, so the first tick seen by the subscriber is 0 and dropped ticks leave a gap
+        return Flux.defer(() -> bounded(sharedTicks.map(new RelativeToFirstTick())));
+    }
+
+    //The shared tick number itself, identical for all the subscribers connected at the same time.
+    public Flux<Long> sequencedTicks() {
+        return bounded(sharedTicks);
+    }
+
+    //The ticks after lastSequence that are still in the replay buffer, then the live ticks, with nothing lost or sent
+    //twice in between. Ticks that fell out of the replay buffer, or out of the subscriber's bounded buffer and then out
+    //of the replay buffer, show up as a gap in the sequences.
+    //A negative lastSequence (no Last-Event-ID) or one that was never handed out (e.g. from before a restart of the
+    //application) just gets the live ticks.
+    public Flux<SequencedValue> ticksAfter(long lastSequence) {
+        return Flux.defer(() -> {
+            long next = replayBuffer.nextSequence();
+            Resume resume = new Resume(lastSequence >= 0 && lastSequence < next ? lastSequence : next - 1);
+            //the live ticks are subscribed once the replay is sent, the ones fired meanwhile are taken from the buffer
+            return Flux.concat(
+                    Flux.defer(() -> Flux.fromIterable(resume.upTo(replayBuffer.nextSequence()))),
+                    bounded(sharedTicks).concatMapIterable(tick -> resume.upTo(tick + 1)));
+        });
+    }
+
+    private Flux<Long> bounded(Flux<Long> ticks) {
+        switch (properties.getOverflowPolicy()) {
+            case DROP_LATEST:
+                return ticks.onBackpressureBuffer(properties.getBufferSize(), dropped -> { }, BufferOverflowStrategy.DROP_LATEST);
+            case DISCONNECT:
+                return ticks.onBackpressureBuffer(properties.getBufferSize(), BufferOverflowStrategy.ERROR);
+            default:
+                return ticks.onBackpressureBuffer(properties.getBufferSize(), dropped -> { }, BufferOverflowStrategy.DROP_OLDEST);
+        }
+    }
+
+    //per subscription state, the replay and then the live ticks, one after the other
+    private final class Resume {
+        private long last;
+
+        Resume(long last) {
+            this.last = last;
+        }
+
+        //everything after the last tick sent, up to "end" (exclusive)
+        List<SequencedValue> upTo(long end) {
+            if (end <= last + 1) {
+                return Collections.emptyList();
+            }
+            List<SequencedValue> ticks = replayBuffer.range(last + 1, end);
+            last = end - 1;
+            return ticks;
+        }
+    }
+
+    //per subscription state, only ever touched from the serialized onNext of the shared interval
+    private static final class RelativeToFirstTick implements Function<Long, Long> {
+        private long firstTick = -1;
+
+        @Override
+        public Long apply(Long tick) {
+            if (firstTick < 0) {
+                firstTick = tick;
+            }
+            return tick - firstTick;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.ticker")
+public class TickerProperties {
+
+    //time between two ticks of the shared interval
+    private Duration period = Duration.ofSeconds(1);
+
+    //number of ticks buffered per subscriber before the overflow policy kicks in
+    private int bufferSize = 256;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    private Replay replay = new Replay();
+
+    //the recent ticks kept for clients that reconnect with a Last-Event-ID
+    @Data
+    public static class Replay {
+        //8 bytes per tick, rounded down to a power of 2 ticks (1MB is 131072 ticks, 36 hours at the default period)
+        private DataSize maxSize = DataSize.ofMegabytes(1);
+        //keep the ring in a direct buffer, outside of the heap
+        private boolean offHeap = false;
+    }
+}
@@ -0,0 +1,71 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import java.util.Arrays;
+
+//The running aggregate of one window: primitive count/sum/min/max, and for the percentiles the values themselves in a
+//long[] while the window is small (exact, and cheaper than the 7.5KB of a histogram), then a LogHistogram once it has
+//more than EXACT_LIMIT of them, so a window of a million elements costs the same memory as one of a thousand
+//(buffer() would keep every element, boxed, in a list).
+public class WindowAccumulator {
+
+    static final int EXACT_LIMIT = 1024;
+    static final int DEFAULT_CAPACITY = 16;
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private long[] values;
+    private LogHistogram histogram;
+
+    public WindowAccumulator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    //expected number of elements, for count windows it is known and saves growing the array
+    public WindowAccumulator(int expected) {
+        values = new long[Math.max(1, Math.min(expected, EXACT_LIMIT))];
+    }
+
+    public WindowAccumulator add(long value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (histogram != null) {
+            histogram.record(value);
+        } else if (count <= EXACT_LIMIT) {
+            if (count > values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, EXACT_LIMIT));
+            }
+            values[(int) count - 1] = value;
+        } else {
+            histogram = new LogHistogram();
+            for (int i = 0; i < EXACT_LIMIT; i++) {
+                histogram.record(values[i]);
+            }
+            histogram.record(value);
+            values = null;
+        }
+        return this;
+    }
+
+    public WindowSummary summary() {
+        if (count == 0) {
+            return new WindowSummary(0, 0, null, null, null, null, null, null);
+        }
+        if (histogram == null) {
+            Arrays.sort(values, 0, (int) count);
+        }
+        return new WindowSummary(count, sum, min, max, (double) sum / count,
+                percentile(0.5), percentile(0.9), percentile(0.99));
+    }
+
+    private long percentile(double percentile) {
+        if (histogram == null) {
+            return values[(int) Math.max(0, Math.ceil(percentile * count) - 1)];
+        }
+        //the histogram only knows the bucket, min and max are exact
+        return Math.max(min, Math.min(max, histogram.valueAtPercentile(percentile)));
+    }
+}
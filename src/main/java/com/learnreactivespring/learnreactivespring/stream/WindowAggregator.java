@@ -0,0 +1,39 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+
+//Cuts a stream of longs into windows - every size elements, every duration, or whichever comes first when both are
+//given - and emits one WindowSummary per window. Each window is folded into a WindowAccumulator as its elements
+//arrive, nothing of the window is kept besides that.
+@Component
+public class WindowAggregator {
+
+    private final Scheduler timer;  //closes the time windows, see learnreactivespring.scheduling.timer
+
+    public WindowAggregator(TimerSchedulers timerSchedulers) {
+        this.timer = timerSchedulers.timer();
+    }
+
+    //size and/or duration, at least one of them
+    public Flux<WindowSummary> aggregate(Flux<Long> elements, Integer size, Duration duration) {
+        Flux<Flux<Long>> windows;
+        if (size != null && duration != null) {
+            windows = elements.windowTimeout(size, duration, timer);
+        } else if (size != null) {
+            windows = elements.window(size);
+        } else if (duration != null) {
+            windows = elements.window(duration, timer);
+        } else {
+            throw new IllegalArgumentException("A window needs a size or a duration");
+        }
+        int expected = size != null ? size : WindowAccumulator.DEFAULT_CAPACITY;
+        return windows.concatMap(window -> window
+                .reduceWith(() -> new WindowAccumulator(expected), WindowAccumulator::add)   //empty window -> an empty summary
+                .map(WindowAccumulator::summary));
+    }
+}
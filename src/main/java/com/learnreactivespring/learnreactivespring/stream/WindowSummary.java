@@ -0,0 +1,17 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import lombok.Value;
+
+//What a dashboard gets per window instead of every element, min/max/mean/percentiles are null for an empty window
+@Value
+public class WindowSummary {
+
+    long count;
+    long sum;
+    Long min;
+    Long max;
+    Double mean;
+    Long p50;
+    Long p90;
+    Long p99;
+}
@@ -0,0 +1,21 @@
+package com.learnreactivespring.learnreactivespring.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.tracing")
+public class SignalTracingProperties {
+
+    //mode used by every endpoint which is not listed in endpoints
+    private TracingMode defaultMode = TracingMode.FULL;
+
+    //with TracingMode.SAMPLED one subscription out of sampleRate is logged
+    private int sampleRate = 100;
+
+    //per endpoint override, e.g. learnreactivespring.tracing.endpoints.functional-flux=off
+    private Map<String, TracingMode> endpoints = new HashMap<>();
+}
@@ -0,0 +1,7 @@
+package com.learnreactivespring.learnreactivespring.tracing;
+
+public enum TracingMode {
+    OFF,        //no .log() at all -> the pipeline is returned untouched
+    SAMPLED,    //.log() on 1 out of every N subscriptions
+    FULL        //.log() on every subscription (the original behaviour)
+}
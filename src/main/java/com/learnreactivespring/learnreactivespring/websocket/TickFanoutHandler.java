@@ -0,0 +1,72 @@
+package com.learnreactivespring.learnreactivespring.websocket;
+
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.stream.SharedTicker;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+
+//The /fluxinfinitestream ticks over WebSocket (learnreactivespring.websocket.ticks.path), one text frame per tick.
+//Every tick is serialized once, into a byte[] shared by all the sessions: a session only wraps it (no copy) into its
+//own frame. Each session has its own bounded buffer in front of its connection, so one slow client never holds back
+//the others, what happens once it is full is the overflow policy.
+@Component
+@EnableConfigurationProperties(TickFanoutProperties.class)
+public class TickFanoutHandler implements WebSocketHandler {
+
+    //1013 Try Again Later, sent to the sessions dropped by the DISCONNECT policy
+    static final CloseStatus SLOW_CONSUMER = new CloseStatus(1013, "slow consumer");
+
+    private final TickFanoutProperties properties;
+    private final SignalTracing signalTracing;
+    private final StreamMetrics streamMetrics;
+    private final Flux<byte[]> frames;
+
+    public TickFanoutHandler(TickFanoutProperties properties, SharedTicker sharedTicker,
+                             SignalTracing signalTracing, StreamMetrics streamMetrics) {
+        this.properties = properties;
+        this.signalTracing = signalTracing;
+        this.streamMetrics = streamMetrics;
+        //one subscription to the ticker for all the sessions, started by the first one and stopped after the last one
+        this.frames = sharedTicker.sequencedTicks()
+                .map(tick -> Long.toString(tick).getBytes(StandardCharsets.UTF_8))
+                .publish()
+                .refCount();
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        Sinks.Empty<Void> overflow = Sinks.empty();
+        Flux<WebSocketMessage> messages = bounded(frames, overflow)
+                .transform(signalTracing.flux("ws-ticks"))
+                .transform(streamMetrics.flux("ws-ticks"))
+                .map(frame -> new WebSocketMessage(WebSocketMessage.Type.TEXT, session.bufferFactory().wrap(frame)))
+                .takeUntilOther(session.receive().then());  //the client closed (or sent a close frame)
+        //a stalled session never drains its buffer, so the overflow is raised on the side instead of as an error
+        //(which onBackpressureBuffer would only deliver after the buffered frames), then the send is cancelled
+        return Mono.firstWithSignal(
+                session.send(messages),
+                overflow.asMono().then(Mono.defer(() -> session.close(SLOW_CONSUMER))));
+    }
+
+    private Flux<byte[]> bounded(Flux<byte[]> shared, Sinks.Empty<Void> overflow) {
+        switch (properties.getOverflowPolicy()) {
+            case DROP_LATEST:
+                return shared.onBackpressureBuffer(properties.getBufferSize(), dropped -> { }, BufferOverflowStrategy.DROP_LATEST);
+            case DISCONNECT:
+                return shared.onBackpressureBuffer(properties.getBufferSize(), dropped -> overflow.tryEmitEmpty(), BufferOverflowStrategy.DROP_LATEST);
+            default:
+                return shared.onBackpressureBuffer(properties.getBufferSize(), dropped -> { }, BufferOverflowStrategy.DROP_OLDEST);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.learnreactivespring.learnreactivespring.websocket;
+
+import com.learnreactivespring.learnreactivespring.stream.OverflowPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learnreactivespring.websocket.ticks")
+public class TickFanoutProperties {
+
+    private String path = "/ws/ticks";
+
+    //frames queued per session while its connection is not writable (the client does not read fast enough)
+    private int bufferSize = 64;
+
+    //when a session's buffer is full: DROP_OLDEST / DROP_LATEST frames, or DISCONNECT (close 1013 Try Again Later)
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+}
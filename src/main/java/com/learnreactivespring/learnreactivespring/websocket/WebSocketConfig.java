@@ -0,0 +1,20 @@
+package com.learnreactivespring.learnreactivespring.websocket;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+//The WebSocketHandlerAdapter comes with WebFlux, only the path -> handler mapping is ours.
+@Configuration
+public class WebSocketConfig {
+
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(TickFanoutHandler tickFanoutHandler, TickFanoutProperties properties) {
+        //ahead of the annotated controllers and the router functions
+        return new SimpleUrlHandlerMapping(Map.of(properties.getPath(), tickFanoutHandler), Ordered.HIGHEST_PRECEDENCE);
+    }
+}
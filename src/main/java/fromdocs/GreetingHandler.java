@@ -1,18 +1,26 @@
 package fromdocs;
 
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponse;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponses;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Supplier;
+
 @Component
 public class GreetingHandler {
+
+    private final Supplier<PreEncodedResponse> greeting;
+
+    public GreetingHandler(PreEncodedResponses preEncodedResponses) {
+        //"Hello Spring" never changes, so it is encoded once instead of on every request
+        this.greeting = preEncodedResponses.register("greeting", "Hello Spring", MediaType.TEXT_PLAIN);
+    }
+
     public Mono<ServerResponse> greetings(ServerRequest serverRequest) {
-        return ServerResponse.ok()
-                .contentType(MediaType.TEXT_PLAIN)
-                .body(BodyInserters.fromValue("Hello Spring"));
+        return greeting.get().render(serverRequest);
     }
 }
@@ -0,0 +1,62 @@
+package com.learnreactivespring.learnreactivespring.blocking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+//BlockHound is installed for the rest of the JVM, the context is closed afterwards so nothing records into it anymore
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"learnreactivespring.blocking.enabled=true", "learnreactivespring.blocking.probe-interval=5ms"})
+@DirtiesContext
+public class BlockingCallDetectorTest {
+
+    @LocalServerPort
+    int port;
+
+    @TestConfiguration
+    static class BlockingRoute {
+        @Bean
+        RouterFunction<ServerResponse> blockingRoute() {
+            //the kind of handler this is about: sleeps on the event loop it was called on
+            return RouterFunctions.route(RequestPredicates.GET("/test/blocking"), request -> Mono.fromCallable(() -> {
+                Thread.sleep(200);
+                return "slept";
+            }).flatMap(body -> ServerResponse.ok().bodyValue(body)));
+        }
+    }
+
+    @Test
+    public void blockingHandler_isReportedWithItsStackAndTheStall() {
+        WebClient webClient = WebClient.create("http://localhost:" + port);
+        webClient.get().uri("/functional/mono").retrieve().toBodilessEntity().block(Duration.ofSeconds(5));   //starts the probes of the loops
+        String slept = webClient.get().uri("/test/blocking").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+        Assertions.assertEquals("slept", slept);
+
+        JsonNode report = webClient.get().uri("/actuator/blocking").retrieve().bodyToMono(JsonNode.class).block(Duration.ofSeconds(5));
+
+        Assertions.assertTrue(report.get("installed").asBoolean(), report.toString());
+        JsonNode sleep = null;
+        for (JsonNode call : report.get("calls")) {
+            if (call.get("method").asText().startsWith("java.lang.Thread.sleep")) {
+                sleep = call;
+            }
+        }
+        Assertions.assertNotNull(sleep, report.toString());
+        Assertions.assertTrue(sleep.get("stackTrace").toString().contains("BlockingCallDetectorTest"), sleep.toString());
+        Assertions.assertTrue(sleep.get("thread").asText().contains("reactor-http"), sleep.toString());
+        Assertions.assertTrue(report.get("stalls").get("longestMillis").asDouble() >= 150, report.toString());
+    }
+}
@@ -0,0 +1,91 @@
+package com.learnreactivespring.learnreactivespring.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReactiveCacheTest {
+
+    private ReactiveCacheManager reactiveCacheManager(long maximumSize, Duration ttl) {
+        ReactiveCacheProperties properties = new ReactiveCacheProperties();
+        properties.getDefaults().setMaximumSize(maximumSize);
+        properties.getDefaults().setTtl(ttl);
+        return new ReactiveCacheManager(properties);
+    }
+
+    @Test
+    public void repeatReads_areServedFromTheCache() {
+        ReactiveCache<String, Integer> cache = reactiveCacheManager(100, Duration.ofMinutes(1)).getCache("test");
+        AtomicInteger loads = new AtomicInteger();
+
+        Flux<Integer> reads = Flux.range(0, 10)
+                .concatMap(i -> cache.get("key", key -> Mono.fromCallable(loads::incrementAndGet)));
+
+        StepVerifier.create(reads).expectNextCount(10).verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(9, cache.stats().hitCount());
+        Assertions.assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void concurrentMisses_collapseIntoOneLoad() {
+        ReactiveCache<String, Integer> cache = reactiveCacheManager(100, Duration.ofMinutes(1)).getCache("test");
+        AtomicInteger loads = new AtomicInteger();
+
+        //100 subscribers ask for the same key while the (slow) load is still in flight
+        Flux<Integer> reads = Flux.range(0, 100)
+                .flatMap(i -> cache.get("popular", key -> Mono.delay(Duration.ofMillis(100)).map(tick -> loads.incrementAndGet())));
+
+        StepVerifier.create(reads.distinct()).expectNext(1).verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void expiredEntries_areLoadedAgain() throws InterruptedException {
+        ReactiveCache<String, Integer> cache = reactiveCacheManager(100, Duration.ofMillis(50)).getCache("test");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("key", key -> Mono.fromCallable(loads::incrementAndGet)).block();
+        Thread.sleep(100);
+        StepVerifier.create(cache.get("key", key -> Mono.fromCallable(loads::incrementAndGet)))
+                .expectNext(2)
+                .verifyComplete();
+    }
+
+    @Test
+    public void errorsAndEmptyValues_areNotCached() {
+        ReactiveCache<String, Integer> cache = reactiveCacheManager(100, Duration.ofMinutes(1)).getCache("test");
+
+        StepVerifier.create(cache.get("key", key -> Mono.error(new RuntimeException("Exception Occurred"))))
+                .expectErrorMessage("Exception Occurred")
+                .verify();
+        StepVerifier.create(cache.get("empty", key -> Mono.empty()))
+                .verifyComplete();
+        StepVerifier.create(cache.get("key", key -> Mono.just(1)))
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    @Test
+    public void sizeBound_evictsAndCountsEvictions() {
+        ReactiveCacheManager reactiveCacheManager = reactiveCacheManager(10, Duration.ofMinutes(1));
+        ReactiveCache<Integer, Integer> cache = reactiveCacheManager.getCache("test");
+
+        Flux.range(0, 1000).concatMap(i -> cache.get(i, Mono::just)).blockLast();
+
+        //eviction runs asynchronously in Caffeine, wait for it to catch up
+        StepVerifier.create(Mono.fromCallable(() -> cache.stats().evictionCount())
+                        .filter(evictions -> evictions >= 990)
+                        .repeatWhenEmpty(50, attempts -> attempts.delayElements(Duration.ofMillis(10))))
+                .expectNextCount(1)
+                .verifyComplete();
+        Map<String, Object> counters = reactiveCacheManager.stats().get("test");
+        Assertions.assertEquals(1000L, counters.get("missCount"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.learnreactivespring.learnreactivespring.scheduling.VirtualTimeConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@Import(VirtualTimeConfiguration.class)    //the delays and ticks run on a virtual clock
+public class BinaryContentNegotiationTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    private byte[] get(String uri, MediaType accept) {
+        return webTestClient.get().uri(uri)
+                .accept(accept)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(accept)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    public void functionalFlux_cbor() throws IOException {
+        byte[] body = get("/functional/flux", BinaryMediaTypes.CBOR);
+
+        Assertions.assertEquals(Arrays.asList(1, 2, 3, 4), new ObjectMapper(new CBORFactory()).readValue(body, new TypeReference<List<Integer>>() { }));
+        Assertions.assertEquals(6, body.length);
+    }
+
+    @Test
+    public void functionalFlux_smile() throws IOException {
+        byte[] body = get("/functional/flux", BinaryMediaTypes.SMILE);
+
+        Assertions.assertEquals(Arrays.asList(1, 2, 3, 4), new ObjectMapper(new SmileFactory()).readValue(body, new TypeReference<List<Integer>>() { }));
+    }
+
+    @Test
+    public void functionalFlux_protobuf() {
+        byte[] body = get("/functional/flux", BinaryMediaTypes.PROTOBUF);
+
+        Assertions.assertArrayEquals(new byte[]{2, 8, 2, 2, 8, 4, 2, 8, 6, 2, 8, 8}, body);
+    }
+
+    @Test
+    public void functionalFlux_jsonStaysTheDefault() {
+        webTestClient.get().uri("/functional/flux")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody(String.class)
+                .isEqualTo("[1,2,3,4]");
+    }
+
+    @Test
+    public void flux_anyAccept_isJson() {
+        webTestClient.get().uri("/flux")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody(String.class)
+                .isEqualTo("[1,2,3,4]");
+    }
+
+    @Test
+    public void flux_browserAccept_isJson() {
+        webTestClient.get().uri("/flux")
+                .header(HttpHeaders.ACCEPT, "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody(String.class)
+                .isEqualTo("[1,2,3,4]");
+    }
+
+    @Test
+    public void functionalFlux_anyAccept_isJson() {
+        webTestClient.get().uri("/functional/flux")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody(String.class)
+                .isEqualTo("[1,2,3,4]");
+    }
+
+    @Test
+    public void fluxStream_cborSequence() {
+        //only the first element (2s of delay each), every element is a separately flushed buffer
+        DataBuffer first = webTestClient.get().uri("/fluxstream")
+                .accept(BinaryMediaTypes.CBOR_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(BinaryMediaTypes.CBOR_STREAM)
+                .returnResult(DataBuffer.class)
+                .getResponseBody()
+                .blockFirst();
+
+        byte[] bytes = new byte[first.readableByteCount()];
+        first.read(bytes);
+        DataBufferUtils.release(first);
+        Assertions.assertArrayEquals(new byte[]{1}, bytes);
+    }
+}
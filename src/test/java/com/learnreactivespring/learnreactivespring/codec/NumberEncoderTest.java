@@ -0,0 +1,138 @@
+package com.learnreactivespring.learnreactivespring.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class NumberEncoderTest {
+
+    //every size class of the three formats, both signs
+    private static final List<Long> VALUES = List.of(0L, 1L, -1L, 15L, -16L, 16L, -17L, 23L, 24L, -25L, 63L, 64L, -65L,
+            255L, 256L, 8191L, 8192L, 65535L, 65536L, (long) Integer.MAX_VALUE, (long) Integer.MIN_VALUE,
+            Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, Long.MAX_VALUE, Long.MIN_VALUE);
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    private byte[] encode(NumberEncoder encoder, Flux<Long> values, MimeType mimeType) {
+        return DataBufferUtils.join(encoder.encode(values, bufferFactory, ResolvableType.forClass(Long.class), mimeType, Collections.emptyMap()))
+                .map(dataBuffer -> {
+                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(bytes);
+                    DataBufferUtils.release(dataBuffer);
+                    return bytes;
+                })
+                .block();
+    }
+
+    private static List<Long> readArray(ObjectMapper objectMapper, byte[] bytes) throws IOException {
+        return objectMapper.readValue(bytes, new TypeReference<List<Long>>() { });
+    }
+
+    private static List<Long> readSequence(ObjectMapper objectMapper, byte[] bytes) throws IOException {
+        try (MappingIterator<Long> iterator = objectMapper.readerFor(Long.class).readValues(bytes)) {
+            return iterator.readAll();
+        }
+    }
+
+    @Test
+    public void cbor() throws IOException {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        CborNumberEncoder encoder = new CborNumberEncoder();
+
+        Assertions.assertEquals(VALUES, readArray(cbor, encode(encoder, Flux.fromIterable(VALUES), BinaryMediaTypes.CBOR)));
+        Assertions.assertEquals(VALUES, readSequence(cbor, encode(encoder, Flux.fromIterable(VALUES), BinaryMediaTypes.CBOR_STREAM)));
+        //0..23 is one byte: 4 elements + array start/end
+        Assertions.assertEquals(6, encode(encoder, Flux.just(1L, 2L, 3L, 4L), BinaryMediaTypes.CBOR).length);
+    }
+
+    @Test
+    public void smile() throws IOException {
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        SmileNumberEncoder encoder = new SmileNumberEncoder();
+
+        Assertions.assertEquals(VALUES, readArray(smile, encode(encoder, Flux.fromIterable(VALUES), BinaryMediaTypes.SMILE)));
+        Assertions.assertEquals(VALUES, readSequence(smile, encode(encoder, Flux.fromIterable(VALUES), BinaryMediaTypes.SMILE_STREAM)));
+    }
+
+    @Test
+    public void protobufDelimited() {
+        VarintNumberEncoder encoder = new VarintNumberEncoder();
+
+        Assertions.assertEquals(VALUES, readDelimited(encode(encoder, Flux.fromIterable(VALUES), BinaryMediaTypes.PROTOBUF)));
+        //length, tag, value
+        Assertions.assertEquals(12, encode(encoder, Flux.just(1L, 2L, 3L, 4L), BinaryMediaTypes.PROTOBUF).length);
+    }
+
+    @Test
+    public void mono_isOneValue() throws IOException {
+        DataBuffer dataBuffer = new CborNumberEncoder()
+                .encode(Mono.just(1000), bufferFactory, ResolvableType.forClass(Integer.class), BinaryMediaTypes.CBOR, Collections.emptyMap())
+                .blockLast();
+        byte[] bytes = new byte[dataBuffer.readableByteCount()];
+        dataBuffer.read(bytes);
+
+        Assertions.assertEquals(1000, new ObjectMapper(new CBORFactory()).readValue(bytes, Integer.class));
+    }
+
+    @Test
+    public void canEncode_integralNumbersOnly() {
+        CborNumberEncoder encoder = new CborNumberEncoder();
+
+        Assertions.assertTrue(encoder.canEncode(ResolvableType.forClass(Integer.class), BinaryMediaTypes.CBOR));
+        Assertions.assertTrue(encoder.canEncode(ResolvableType.forClass(Long.class), BinaryMediaTypes.CBOR_STREAM));
+        Assertions.assertFalse(encoder.canEncode(ResolvableType.forClass(Double.class), BinaryMediaTypes.CBOR));
+        Assertions.assertFalse(encoder.canEncode(ResolvableType.forClass(Integer.class), BinaryMediaTypes.SMILE));
+    }
+
+    @Test
+    public void canEncode_explicitBinaryTypesOnly() {
+        CborNumberEncoder encoder = new CborNumberEncoder();
+
+        Assertions.assertFalse(encoder.canEncode(ResolvableType.forClass(Integer.class), null));
+        Assertions.assertFalse(encoder.canEncode(ResolvableType.forClass(Integer.class), MediaType.ALL));
+        Assertions.assertFalse(encoder.canEncode(ResolvableType.forClass(Integer.class), MediaType.parseMediaType("application/*")));
+    }
+
+    //Value.parseDelimitedFrom(in) in a loop, without the protobuf runtime
+    private static List<Long> readDelimited(byte[] bytes) {
+        List<Long> values = new ArrayList<>();
+        int[] position = {0};
+        while (position[0] < bytes.length) {
+            long length = readVarint(bytes, position);
+            int end = position[0] + (int) length;
+            Assertions.assertEquals(0x08, bytes[position[0]++]);   //field 1, varint
+            long zigzag = readVarint(bytes, position);
+            values.add((zigzag >>> 1) ^ -(zigzag & 1));
+            Assertions.assertEquals(end, position[0]);
+        }
+        return values;
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
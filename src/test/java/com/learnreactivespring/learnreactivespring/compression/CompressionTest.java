@@ -0,0 +1,120 @@
+package com.learnreactivespring.learnreactivespring.compression;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.function.Tuple2;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+//Real Netty server, the compression happens in its pipeline (not with a mocked WebTestClient)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"learnreactivespring.ticker.period=20ms", "learnreactivespring.compression.stream.max-delay=100ms"})
+public class CompressionTest {
+
+    @LocalServerPort
+    int port;
+
+    //raw client: no decompression, so the headers and chunks are the ones on the wire
+    private HttpClient client(String acceptEncoding) {
+        return HttpClient.create()
+                .baseUrl("http://localhost:" + port)
+                .headers(headers -> {
+                    headers.set(HttpHeaderNames.ACCEPT, MediaType.APPLICATION_STREAM_JSON_VALUE);
+                    if (acceptEncoding != null) {
+                        headers.set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+                    }
+                });
+    }
+
+    //headers + the chunks received within the given time
+    private Tuple2<HttpHeaders, List<byte[]>> get(String uri, String acceptEncoding, Duration duration) {
+        return client(acceptEncoding).get().uri(uri)
+                .responseConnection((response, connection) -> Mono.just(response.responseHeaders())
+                        .zipWith(connection.inbound().receive().asByteArray().take(duration).collectList()))
+                .blockLast(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void infiniteStream_isGzippedWithGroupedFlushes() throws DataFormatException {
+        Tuple2<HttpHeaders, List<byte[]>> response = get("/fluxinfinitestream", "gzip", Duration.ofMillis(1000));
+
+        Assertions.assertEquals("gzip", response.getT1().get(HttpHeaderNames.CONTENT_ENCODING));
+        String text = gunzipAvailable(response.getT2());
+        List<String> ticks = Arrays.asList(text.split("\n"));
+        //~50 ticks in a second, readable while the stream goes on, in far fewer chunks than elements
+        Assertions.assertTrue(ticks.size() >= 20, text);
+        Assertions.assertEquals("0", ticks.get(0));
+        Assertions.assertTrue(response.getT2().size() < ticks.size() / 2, response.getT2().size() + " chunks for " + ticks.size() + " ticks");
+    }
+
+    @Test
+    public void infiniteStream_withoutAcceptEncoding_isNotCompressed() {
+        Tuple2<HttpHeaders, List<byte[]>> response = get("/fluxinfinitestream", null, Duration.ofMillis(200));
+
+        Assertions.assertNull(response.getT1().get(HttpHeaderNames.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void mono_isTooSmallToCompress() {
+        Tuple2<HttpHeaders, List<byte[]>> response = get("/mono", "gzip, deflate", Duration.ofSeconds(2));
+
+        Assertions.assertNull(response.getT1().get(HttpHeaderNames.CONTENT_ENCODING));
+        Assertions.assertEquals("1", new String(response.getT2().get(0), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void acceptEncoding_qValuesAndTokens() {
+        Assertions.assertTrue(CompressedStreamFlushFilter.acceptsCompression("gzip, deflate, br"));
+        Assertions.assertTrue(CompressedStreamFlushFilter.acceptsCompression("br;q=1.0, deflate;q=0.5"));
+        Assertions.assertTrue(CompressedStreamFlushFilter.acceptsCompression("*"));
+        Assertions.assertFalse(CompressedStreamFlushFilter.acceptsCompression("gzip;q=0"));
+        Assertions.assertFalse(CompressedStreamFlushFilter.acceptsCompression("gzip; q=0.0, deflate;Q=0"));
+        Assertions.assertFalse(CompressedStreamFlushFilter.acceptsCompression("x-gzip-foo"));
+        Assertions.assertFalse(CompressedStreamFlushFilter.acceptsCompression("identity, *;q=0"));
+        Assertions.assertFalse(CompressedStreamFlushFilter.acceptsCompression("*;q=1, gzip;q=0, deflate;q=0"));
+        Assertions.assertFalse(CompressedStreamFlushFilter.acceptsCompression(null));
+    }
+
+    @Test
+    public void coalescedStream_isGzippedOnce() throws DataFormatException {
+        //FrameCoalescer's batches go out as they are, gzipped by Netty without a second grouping
+        Tuple2<HttpHeaders, List<byte[]>> response = client("gzip")
+                .headers(headers -> headers.set(HttpHeaderNames.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))
+                .get().uri("/functional/fluxinfinitestream")
+                .responseConnection((r, connection) -> Mono.just(r.responseHeaders())
+                        .zipWith(connection.inbound().receive().asByteArray().take(Duration.ofMillis(1000)).collectList()))
+                .blockLast(Duration.ofSeconds(10));
+
+        Assertions.assertEquals("gzip", response.getT1().get(HttpHeaderNames.CONTENT_ENCODING));
+        Assertions.assertTrue(gunzipAvailable(response.getT2()).startsWith("0\n"));
+    }
+
+    //everything which can be inflated so far from a gzip stream which has not ended yet
+    private static String gunzipAvailable(List<byte[]> chunks) throws DataFormatException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        chunks.forEach(compressed::writeBytes);
+        byte[] bytes = compressed.toByteArray();
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(bytes, 10, bytes.length - 10);    //fixed size gzip header, no optional fields from Netty
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        byte[] out = new byte[8192];
+        int read;
+        while ((read = inflater.inflate(out)) > 0) {
+            inflated.write(out, 0, read);
+        }
+        return inflated.toString(StandardCharsets.UTF_8);
+    }
+}
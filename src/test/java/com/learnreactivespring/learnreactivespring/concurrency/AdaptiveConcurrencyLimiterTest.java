@@ -0,0 +1,67 @@
+package com.learnreactivespring.learnreactivespring.concurrency;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    //keeps every slot of the limiter taken (like a server under more load than it can take) while feeding it samples,
+    //one request completes with rttNanos and a new one immediately takes its place
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos, int samples) {
+        for (int sample = 0; sample < samples; sample++) {
+            while (limiter.tryAcquire()) {
+                //take whatever the limit allows right now
+            }
+            limiter.release(rttNanos);
+        }
+    }
+
+    @Test
+    public void requestsOverTheLimit_areRejected() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.2);
+
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertFalse(limiter.tryAcquire());
+
+        limiter.release(MILLIS);
+        Assertions.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void stableLatency_growsTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 1000, 0.2);
+
+        saturate(limiter, 10 * MILLIS, 100);
+
+        Assertions.assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    public void risingLatency_shrinksTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 4, 1000, 0.2);
+        saturate(limiter, 10 * MILLIS, 200);
+        int limitBeforeQueueing = limiter.getLimit();
+
+        //same load, but now the requests queue up: 10x the latency
+        saturate(limiter, 100 * MILLIS, 30);
+
+        Assertions.assertTrue(limiter.getLimit() < limitBeforeQueueing,
+                limiter.getLimit() + " should be below " + limitBeforeQueueing);
+    }
+
+    @Test
+    public void limit_staysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 8, 12, 1.0);
+
+        saturate(limiter, MILLIS, 100);
+        Assertions.assertEquals(12, limiter.getLimit());
+
+        saturate(limiter, 1000 * MILLIS, 50);
+        Assertions.assertEquals(8, limiter.getLimit());
+    }
+}
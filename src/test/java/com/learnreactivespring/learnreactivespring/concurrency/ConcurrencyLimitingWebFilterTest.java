@@ -0,0 +1,65 @@
+package com.learnreactivespring.learnreactivespring.concurrency;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+public class ConcurrencyLimitingWebFilterTest {
+
+    private ConcurrencyLimitingWebFilter webFilter() {
+        ConcurrencyLimitProperties.Route route = new ConcurrencyLimitProperties.Route();
+        route.setPath("/flux");
+        route.setInitialLimit(1);
+        route.setMinLimit(1);
+        route.setMaxLimit(1);
+        route.setRetryAfter(Duration.ofSeconds(3));
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.getRoutes().add(route);
+        return new ConcurrencyLimitingWebFilter(properties,
+                new StaticListableBeanFactory(Map.of("meterRegistry", new SimpleMeterRegistry())).getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    public void overTheLimit_failsFastWith503() {
+        ConcurrencyLimitingWebFilter webFilter = webFilter();
+        Sinks.Empty<Void> firstRequestDone = Sinks.empty();
+
+        //the first request takes the only slot and keeps it until firstRequestDone completes
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/flux"));
+        webFilter.filter(first, exchange -> firstRequestDone.asMono()).subscribe();
+
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/flux"));
+        StepVerifier.create(webFilter.filter(second, exchange -> Mono.error(new AssertionError("must not reach the handler"))))
+                .verifyComplete();
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode());
+        Assertions.assertEquals("3", second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        //slot released -> accepted again
+        firstRequestDone.tryEmitEmpty();
+        MockServerWebExchange third = MockServerWebExchange.from(MockServerHttpRequest.get("/flux"));
+        StepVerifier.create(webFilter.filter(third, exchange -> Mono.empty())).verifyComplete();
+        Assertions.assertNull(third.getResponse().getStatusCode());
+    }
+
+    @Test
+    public void otherRoutes_areNotLimited() {
+        ConcurrencyLimitingWebFilter webFilter = webFilter();
+        webFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/flux")), exchange -> Mono.never()).subscribe();
+
+        MockServerWebExchange mono = MockServerWebExchange.from(MockServerHttpRequest.get("/mono"));
+        StepVerifier.create(webFilter.filter(mono, exchange -> Mono.empty())).verifyComplete();
+        Assertions.assertNull(mono.getResponse().getStatusCode());
+    }
+}
@@ -1,10 +1,18 @@
 package com.learnreactivespring.learnreactivespring.controller;
 
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponses;
+import com.learnreactivespring.learnreactivespring.scheduling.VirtualTimeConfiguration;
+import com.learnreactivespring.learnreactivespring.stream.SharedTicker;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
@@ -14,7 +22,8 @@ import java.util.Arrays;
 import java.util.List;
 
 //@@@3
-@WebFluxTest    //@WebFluxTest scans the @Controller and @RestController annotations and not the @Component @Repository @Service
+@WebFluxTest(FluxAndMonoController.class)    //only this controller (StreamRSocketController is a @Controller too), @WebFluxTest scans the @Controller and @RestController annotations and not the @Component @Repository @Service
+@Import({SignalTracing.class, SharedTicker.class, StreamMetrics.class, PreEncodedResponses.class, VirtualTimeConfiguration.class})   //@Component collaborators of the controller have to be imported explicitly into the slice, the timer is a virtual one
 public class FluxAndMonoControllerTest {
 
     @Autowired
@@ -105,6 +114,33 @@ public class FluxAndMonoControllerTest {
                 .verify();
     }
 
+    @Test
+    public void resumableStream_continuesAfterLastEventId() {
+        List<ServerSentEvent<Long>> firstConnection = sse(null).take(2).collectList().block();
+        String lastEventId = firstConnection.get(0).id();
+
+        //reconnect as if the second event was lost on the way: it is replayed, then the stream goes on
+        StepVerifier.create(sse(lastEventId).take(2))
+                .expectNextMatches(event -> event.id().equals(firstConnection.get(1).id())
+                        && event.data().equals(firstConnection.get(1).data()))
+                .expectNextMatches(event -> Long.parseLong(event.id()) == Long.parseLong(lastEventId) + 2)
+                .verifyComplete();
+    }
+
+    private Flux<ServerSentEvent<Long>> sse(String lastEventId) {
+        return webTestClient.get().uri("/fluxinfinitestream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .headers(headers -> {
+                    if (lastEventId != null) {
+                        headers.set("Last-Event-ID", lastEventId);
+                    }
+                })
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Long>>() { })
+                .getResponseBody();
+    }
+
     @Test
     public void mono(){
         //working with mono.
@@ -119,4 +155,22 @@ public class FluxAndMonoControllerTest {
                     Assertions.assertEquals(expectedValue,response.getResponseBody());
                 });
     }
+
+    @Test
+    public void mono_isPreEncoded_withAnETag() {
+        String eTag = webTestClient.get().uri("/mono")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(1)
+                .expectBody(Integer.class).isEqualTo(1)
+                .returnResult().getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/mono")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
 }
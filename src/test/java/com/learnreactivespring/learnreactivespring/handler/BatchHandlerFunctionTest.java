@@ -0,0 +1,105 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.batch.SubRequest;
+import com.learnreactivespring.learnreactivespring.batch.SubResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SpringBootTest(properties = "learnreactivespring.batch.max-sub-requests=10")
+@AutoConfigureWebTestClient
+public class BatchHandlerFunctionTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Test
+    public void batch_answersEverySubRequestById() {
+        List<SubRequest> subRequests = Arrays.asList(
+                new SubRequest("a", "/functional/mono"),
+                new SubRequest("b", "/functional/flux"),
+                new SubRequest("c", "/functional/nothing"));
+
+        List<SubResponse> subResponses = webTestClient.post().uri("/functional/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(subRequests)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(SubResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        //completion order, so only the content per id is checked
+        Map<String, SubResponse> byId = subResponses.stream().collect(Collectors.toMap(SubResponse::getId, Function.identity()));
+        Assertions.assertEquals(3, byId.size());
+        Assertions.assertEquals(200, byId.get("a").getStatus());
+        Assertions.assertEquals(1, byId.get("a").getBody());
+        Assertions.assertEquals(200, byId.get("b").getStatus());
+        Assertions.assertEquals(Arrays.asList(1, 2, 3, 4), byId.get("b").getBody());
+        Assertions.assertEquals(404, byId.get("c").getStatus());
+        Assertions.assertNull(byId.get("c").getBody());
+    }
+
+    @Test
+    public void batch_ndjsonBody() {
+        List<Integer> statuses = webTestClient.post().uri("/functional/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"id\":\"1\",\"path\":\"/functional/mono\"}\n{\"id\":\"2\",\"path\":\"/functional/mono\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(SubResponse.class)
+                .getResponseBody()
+                .map(SubResponse::getStatus)
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(Arrays.asList(200, 200), statuses);
+    }
+
+    @Test
+    public void batch_tooManySubRequests() {
+        List<SubRequest> subRequests = IntStream.range(0, 11)
+                .mapToObj(i -> new SubRequest(String.valueOf(i), "/functional/mono"))
+                .collect(Collectors.toList());
+
+        webTestClient.post().uri("/functional/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(subRequests)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void batch_endlessBody_isRejectedWithoutReadingItAll() {
+        AtomicLong sent = new AtomicLong();
+        Flux<SubRequest> endless = Flux.<SubRequest, Long>generate(() -> 0L, (i, sink) -> {
+            sink.next(new SubRequest(String.valueOf(i), "/functional/mono"));
+            return i + 1;
+        }).doOnNext(subRequest -> sent.incrementAndGet());
+
+        webTestClient.post().uri("/functional/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(endless, SubRequest.class)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        //the limit is 10, only the prefetch of the encoder and decoder is read past it
+        Assertions.assertTrue(sent.get() < 10_000, "sent " + sent.get());
+    }
+}
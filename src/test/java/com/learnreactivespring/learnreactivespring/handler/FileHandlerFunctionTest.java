@@ -0,0 +1,237 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.files.FileStreamingProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.function.Tuple2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+//Real Netty server, sendfile only happens there. The chunk size is 1MB, so the 3MB file is several mapped chunks
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "learnreactivespring.files.chunk-size=1MB")
+public class FileHandlerFunctionTest {
+
+    private static final byte[] blob = new byte[3 * 1024 * 1024 + 17];
+    private static final String notes = "a line of text which compresses well\n".repeat(200);    //text/plain, > 1KB
+    private static final Path root = createFiles();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    FileStreamingProperties properties;
+
+    //root/files is served, root/secret.txt is next to it
+    private static Path createFiles() {
+        try {
+            Path root = Files.createTempDirectory("files-test");
+            Path directory = Files.createDirectory(root.resolve("files"));
+            new Random(42).nextBytes(blob);
+            Files.write(Files.createDirectory(directory.resolve("blobs")).resolve("blob.bin"), blob);
+            Files.createFile(directory.resolve("empty.bin"));
+            Files.writeString(directory.resolve("notes.txt"), notes);
+            Files.writeString(root.resolve("secret.txt"), "secret");
+            Files.createSymbolicLink(directory.resolve("link.txt"), root.resolve("secret.txt"));
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void filesDirectory(DynamicPropertyRegistry registry) {
+        registry.add("learnreactivespring.files.directory", () -> root.resolve("files").toString());
+    }
+
+    private WebTestClient.ResponseSpec get(String uri, String... headers) {
+        return webTestClient.mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))  //the whole blob as one byte[]
+                .build()
+                .get().uri(uri)
+                .headers(httpHeaders -> {
+                    for (int i = 0; i < headers.length; i += 2) {
+                        httpHeaders.add(headers[i], headers[i + 1]);
+                    }
+                })
+                .exchange();
+    }
+
+    private String etag(String uri) {
+        return webTestClient.head().uri(uri)
+                .exchange()
+                .expectBody().returnResult()
+                .getResponseHeaders().getETag();
+    }
+
+    @Test
+    public void file_isSentWhole() {
+        byte[] body = get("/functional/files/blobs/blob.bin")
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .expectHeader().contentLength(blob.length)
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        Assertions.assertArrayEquals(blob, body);
+    }
+
+    @Test
+    public void file_isSentWhole_asMappedChunks() {
+        properties.setZeroCopy(false);
+        try {
+            byte[] body = get("/functional/files/blobs/blob.bin")
+                    .expectStatus().isOk()
+                    .expectHeader().contentLength(blob.length)
+                    .expectBody(byte[].class).returnResult().getResponseBody();
+
+            Assertions.assertArrayEquals(blob, body);
+        } finally {
+            properties.setZeroCopy(true);
+        }
+    }
+
+    @Test
+    public void file_withAcceptEncoding_isStillSent() {
+        //through the grouped flushes of CompressedStreamFlushFilter, octet-streams are not compressed
+        byte[] body = get("/functional/files/blobs/blob.bin", HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .expectStatus().isOk()
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        Assertions.assertArrayEquals(blob, body);
+    }
+
+    @Test
+    public void textFile_rangeWithAcceptEncoding_isNotCompressed() {
+        //text/plain over min-response-size would be gzipped, the Content-Range has to match the bytes of the file.
+        //Raw client, WebTestClient would decompress and hide the Content-Encoding
+        HttpClient client = HttpClient.create()
+                .baseUrl("http://localhost:" + port)
+                .headers(headers -> headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        Tuple2<io.netty.handler.codec.http.HttpHeaders, String> range = client
+                .headers(headers -> headers.set(HttpHeaders.RANGE, "bytes=100-1099"))
+                .get().uri("/functional/files/notes.txt")
+                .responseSingle((response, body) -> Mono.just(response.responseHeaders()).zipWith(body.asString()))
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertNull(range.getT1().get(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertEquals("bytes 100-1099/" + notes.length(), range.getT1().get(HttpHeaders.CONTENT_RANGE));
+        Assertions.assertEquals(notes.substring(100, 1100), range.getT2());
+
+        Tuple2<io.netty.handler.codec.http.HttpHeaders, String> whole = client.get().uri("/functional/files/notes.txt")
+                .responseSingle((response, body) -> Mono.just(response.responseHeaders()).zipWith(body.asString()))
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertNull(whole.getT1().get(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertEquals(notes, whole.getT2());
+    }
+
+    @Test
+    public void range_resumesADownload() {
+        int start = 1024 * 1024 - 5;    //across the chunk boundaries
+        for (boolean zeroCopy : new boolean[]{true, false}) {
+            properties.setZeroCopy(zeroCopy);
+            try {
+                byte[] body = get("/functional/files/blobs/blob.bin", HttpHeaders.RANGE, "bytes=" + start + "-")
+                        .expectStatus().isEqualTo(206)
+                        .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (blob.length - 1) + "/" + blob.length)
+                        .expectHeader().contentLength(blob.length - start)
+                        .expectBody(byte[].class).returnResult().getResponseBody();
+
+                Assertions.assertArrayEquals(Arrays.copyOfRange(blob, start, blob.length), body, "zeroCopy=" + zeroCopy);
+            } finally {
+                properties.setZeroCopy(true);
+            }
+        }
+    }
+
+    @Test
+    public void range_boundedAndSuffix() {
+        byte[] middle = get("/functional/files/blobs/blob.bin", HttpHeaders.RANGE, "bytes=100-199")
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 100-199/" + blob.length)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        byte[] last = get("/functional/files/blobs/blob.bin", HttpHeaders.RANGE, "bytes=-10")
+                .expectStatus().isEqualTo(206)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        Assertions.assertArrayEquals(Arrays.copyOfRange(blob, 100, 200), middle);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(blob, blob.length - 10, blob.length), last);
+    }
+
+    @Test
+    public void range_pastTheEnd_isNotSatisfiable() {
+        get("/functional/files/blobs/blob.bin", HttpHeaders.RANGE, "bytes=" + blob.length + "-")
+                .expectStatus().isEqualTo(416)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes */" + blob.length);
+        get("/functional/files/empty.bin", HttpHeaders.RANGE, "bytes=0-")
+                .expectStatus().isEqualTo(416);
+    }
+
+    @Test
+    public void ifRange_ofAnotherVersion_getsTheWholeFile() {
+        String etag = etag("/functional/files/blobs/blob.bin");
+
+        get("/functional/files/blobs/blob.bin", HttpHeaders.RANGE, "bytes=10-", HttpHeaders.IF_RANGE, etag)
+                .expectStatus().isEqualTo(206)
+                .expectBody(byte[].class).value(body -> Assertions.assertEquals(blob.length - 10, body.length));
+        get("/functional/files/blobs/blob.bin", HttpHeaders.RANGE, "bytes=10-", HttpHeaders.IF_RANGE, "\"older\"")
+                .expectStatus().isOk()
+                .expectBody(byte[].class).value(body -> Assertions.assertArrayEquals(blob, body));
+    }
+
+    @Test
+    public void ifNoneMatch_isNotModified() {
+        String etag = etag("/functional/files/blobs/blob.bin");
+
+        get("/functional/files/blobs/blob.bin", HttpHeaders.IF_NONE_MATCH, etag)
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void head_hasTheHeadersOnly() {
+        webTestClient.head().uri("/functional/files/blobs/blob.bin")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(blob.length)
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void emptyFile() {
+        get("/functional/files/empty.bin")
+                .expectStatus().isOk()
+                .expectHeader().contentLength(0)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void nothingOutsideTheDirectory() {
+        get("/functional/files/missing.bin").expectStatus().isNotFound();
+        get("/functional/files/blobs").expectStatus().isNotFound();
+        get("/functional/files/..%2Fsecret.txt").expectStatus().isNotFound();
+        get("/functional/files/link.txt").expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,165 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.document.Item;
+import com.learnreactivespring.learnreactivespring.repository.ItemReactiveRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Tag("mongo")    //embedded mongod, only with -Pmongo
+@SpringBootTest(properties = "spring.autoconfigure.exclude=")   //this one needs the embedded Mongo
+@AutoConfigureWebTestClient
+public class ItemHandlerTest {
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    ItemReactiveRepository itemReactiveRepository;
+
+    @BeforeEach
+    public void setUp() {
+        itemReactiveRepository.deleteAll()
+                .thenMany(Flux.just(
+                        new Item("a1", "Samsung TV", 400.0),
+                        new Item("a2", "LG TV", 420.0),
+                        new Item("a3", "Apple Watch", 299.99),
+                        new Item("a4", "Beats HeadPhones", 149.99),
+                        new Item("a5", "Bose Headphones", 199.99)))
+                .flatMap(itemReactiveRepository::save)
+                .blockLast();
+    }
+
+    @Test
+    public void getAllItems() {
+        webTestClient.get().uri("/functional/items")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBodyList(Item.class)
+                .hasSize(5);
+    }
+
+    @Test
+    public void getAllItems_cursorPaging() {
+        //first page, then the next one starting after the last id received
+        List<String> firstPage = webTestClient.get().uri("/functional/items?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Item.class)
+                .returnResult().getResponseBody()
+                .stream().map(Item::getId).collect(Collectors.toList());
+        Assertions.assertEquals(List.of("a1", "a2"), firstPage);
+
+        Flux<Item> secondPage = webTestClient.get().uri("/functional/items?after=a2&limit=2")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .returnResult(Item.class)
+                .getResponseBody();
+
+        StepVerifier.create(secondPage.map(Item::getId))
+                .expectNext("a3", "a4")
+                .verifyComplete();
+    }
+
+    @Test
+    public void getAllItems_pagesLinkToTheNextOne() {
+        List<String> ids = new ArrayList<>();
+        String next = "/functional/items?limit=2";
+        int pages = 0;
+        while (next != null) {
+            EntityExchangeResult<List<Item>> page = webTestClient.get().uri(next)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(Item.class)
+                    .returnResult();
+            page.getResponseBody().forEach(item -> ids.add(item.getId()));
+            String link = page.getResponseHeaders().getFirst(HttpHeaders.LINK);
+            next = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+            pages++;
+        }
+
+        Assertions.assertEquals(List.of("a1", "a2", "a3", "a4", "a5"), ids);
+        Assertions.assertEquals(3, pages, "the last page has no next link");
+    }
+
+    @Test
+    public void getAllItems_invalidLimit() {
+        webTestClient.get().uri("/functional/items?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void getOneItem() {
+        webTestClient.get().uri("/functional/items/{id}", "a3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.description").isEqualTo("Apple Watch");
+    }
+
+    @Test
+    public void getOneItem_notFound() {
+        webTestClient.get().uri("/functional/items/{id}", "missing")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void createItem() {
+        webTestClient.post().uri("/functional/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Item(null, "Iphone X", 999.99))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNotEmpty()
+                .jsonPath("$.description").isEqualTo("Iphone X");
+    }
+
+    @Test
+    public void updateItem() {
+        webTestClient.put().uri("/functional/items/{id}", "a1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Item(null, "Samsung TV", 350.0))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.price").isEqualTo(350.0);
+    }
+
+    @Test
+    public void updateItem_notFound() {
+        webTestClient.put().uri("/functional/items/{id}", "missing")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Item(null, "Samsung TV", 350.0))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void deleteItem() {
+        webTestClient.delete().uri("/functional/items/{id}", "a1")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        StepVerifier.create(itemReactiveRepository.findById("a1"))
+                .verifyComplete();
+    }
+}
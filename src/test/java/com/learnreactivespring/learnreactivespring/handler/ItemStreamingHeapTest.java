@@ -0,0 +1,84 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.document.Item;
+import com.learnreactivespring.learnreactivespring.repository.ItemReactiveRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Streams a 1M document collection through /functional/items over a real server and checks the heap does not grow
+//with the number of documents read. Slow on purpose (~1 minute), the collection is only inserted once.
+@Tag("mongo")    //embedded mongod, only with -Pmongo
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.autoconfigure.exclude=", "learnreactivespring.tracing.default-mode=off"})
+public class ItemStreamingHeapTest {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final long ALLOWED_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ItemReactiveRepository itemReactiveRepository;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        if (itemReactiveRepository.count().block() == DOCUMENTS) {
+            return;
+        }
+        itemReactiveRepository.deleteAll()
+                .thenMany(Flux.range(0, DOCUMENTS)
+                        .map(i -> new Item(String.format("%08d", i), "item " + i, (double) i))
+                        .buffer(INSERT_BATCH)
+                        .concatMap(batch -> reactiveMongoTemplate.insertAll(batch)))
+                .blockLast(Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void streamingTheWholeCollection_keepsTheHeapFlat() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong received = new AtomicLong();
+        AtomicLong maxHeapGrowth = new AtomicLong();
+
+        long heapBefore = usedHeapAfterGc(memory);
+        WebClient.create("http://localhost:" + port)
+                .get().uri("/functional/items")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Item.class)
+                .doOnNext(item -> {
+                    //sample every 100k items, full GC so only what is really retained is counted
+                    if (received.incrementAndGet() % 100_000 == 0) {
+                        maxHeapGrowth.accumulateAndGet(usedHeapAfterGc(memory) - heapBefore, Math::max);
+                    }
+                })
+                .blockLast(Duration.ofMinutes(5));
+
+        Assertions.assertEquals(DOCUMENTS, received.get());
+        Assertions.assertTrue(maxHeapGrowth.get() < ALLOWED_HEAP_GROWTH,
+                "heap grew by " + maxHeapGrowth.get() / (1024 * 1024) + "MB while streaming");
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
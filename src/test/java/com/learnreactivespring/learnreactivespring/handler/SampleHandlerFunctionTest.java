@@ -1,5 +1,6 @@
 package com.learnreactivespring.learnreactivespring.handler;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,9 @@ public class SampleHandlerFunctionTest {
     @Autowired
     WebTestClient webTestClient;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
 
     @Test
     public void flux_approach1() {
@@ -44,5 +48,36 @@ public class SampleHandlerFunctionTest {
                 });
     }
 
+    @Test
+    public void functionalMono_readThroughCache() {
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/functional/mono")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(Integer.class)
+                    .isEqualTo(1);
+        }
 
+        //one load, every other read is a hit (other tests in the same context may have warmed it up already)
+        webTestClient.get().uri("/functional/cache/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.functional-mono.missCount").isEqualTo(1)
+                .jsonPath("$.functional-mono.hitCount").value(hits -> Assertions.assertTrue(((Number) hits).longValue() >= 2));
+    }
+
+    @Test
+    public void functionalMono_cacheHitsAreCounted() {
+        webTestClient.get().uri("/functional/mono").exchange().expectStatus().isOk();   //the cache is warm from here on
+        double before = meterRegistry.get("learnreactivespring.stream.elements").tag("endpoint", "functional-mono").counter().count();
+
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/functional/mono").exchange().expectStatus().isOk();
+        }
+
+        double after = meterRegistry.get("learnreactivespring.stream.elements").tag("endpoint", "functional-mono").counter().count();
+        Assertions.assertEquals(3, after - before);
+    }
 }
@@ -0,0 +1,86 @@
+package com.learnreactivespring.learnreactivespring.handler;
+
+import com.learnreactivespring.learnreactivespring.scheduling.VirtualTimeConfiguration;
+import com.learnreactivespring.learnreactivespring.stream.WindowSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@Import(VirtualTimeConfiguration.class)    //the delays and ticks run on a virtual clock
+public class StreamingHandlerFunctionTest {
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Test
+    public void fluxInfiniteStream_sse() {
+        Flux<Long> ticks = webTestClient.get().uri("/functional/fluxinfinitestream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Long>>() {
+                })
+                .getResponseBody()
+                .filter(event -> event.data() != null)  //skip the heartbeat comments
+                .map(ServerSentEvent::data);
+
+        StepVerifier.create(ticks)
+                .expectNext(0L, 1L, 2L)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void fluxInfiniteStream_ndjson() {
+        Flux<Long> ticks = webTestClient.get().uri("/functional/fluxinfinitestream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Long.class)
+                .getResponseBody();
+
+        StepVerifier.create(ticks)
+                .expectNext(0L, 1L, 2L)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void fluxInfiniteStreamWindows_ndjson() {
+        Flux<WindowSummary> windows = webTestClient.get().uri("/functional/fluxinfinitestream/windows?size=2")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(WindowSummary.class)
+                .getResponseBody();
+
+        StepVerifier.create(windows)
+                .expectNext(new WindowSummary(2, 1, 0L, 1L, 0.5, 0L, 1L, 1L))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void fluxInfiniteStreamWindows_withoutSizeOrDuration() {
+        webTestClient.get().uri("/functional/fluxinfinitestream/windows")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/functional/fluxinfinitestream/windows?duration=1ms")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
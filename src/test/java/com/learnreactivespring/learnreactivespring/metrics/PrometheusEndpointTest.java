@@ -0,0 +1,41 @@
+package com.learnreactivespring.learnreactivespring.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@AutoConfigureMetrics   //metrics export (and so the Prometheus registry) is off in tests unless asked for
+public class PrometheusEndpointTest {
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Test
+    public void functionalRoutes_areScraped() {
+        webTestClient.get().uri("/functional/flux")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Integer.class).hasSize(4);
+
+        String scrape = webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        Assertions.assertNotNull(scrape);
+        Assertions.assertTrue(scrape.contains("learnreactivespring_stream_elements_total{endpoint=\"functional-flux\",}"));
+        Assertions.assertTrue(scrape.contains("learnreactivespring_stream_active{endpoint=\"functional-flux\",}"));
+        Assertions.assertTrue(scrape.contains("http_server_requests_seconds_bucket{") && scrape.contains("uri=\"/functional/flux\""));
+        //learnreactivespring.blocking.enabled is off: no stall histogram full of zeros, no blocking call counter
+        Assertions.assertFalse(scrape.contains("learnreactivespring_eventloop_stall"));
+        Assertions.assertFalse(scrape.contains("learnreactivespring_blocking_calls"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.learnreactivespring.learnreactivespring.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+public class StreamMetricsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StreamMetrics streamMetrics(boolean enabled) {
+        StreamMetricsProperties properties = new StreamMetricsProperties();
+        properties.setEnabled(enabled);
+        return new StreamMetrics(
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+                properties);
+    }
+
+    private double counter(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).counter().count();
+    }
+
+    private double active(String endpoint) {
+        return meterRegistry.get("learnreactivespring.stream.active").tag("endpoint", endpoint).gauge().value();
+    }
+
+    @Test
+    public void completedStream() {
+        StreamMetrics streamMetrics = streamMetrics(true);
+
+        StepVerifier.create(Flux.just(1, 2, 3, 4).transform(streamMetrics.flux("flux")))
+                .expectNextCount(4)
+                .verifyComplete();
+
+        Assertions.assertEquals(4, counter("learnreactivespring.stream.elements", "endpoint", "flux"));
+        Assertions.assertEquals(1, counter("learnreactivespring.stream.terminations", "endpoint", "flux", "signal", "complete"));
+        Assertions.assertEquals(0, active("flux"));
+    }
+
+    @Test
+    public void openStream_isActiveUntilCancelled() {
+        StreamMetrics streamMetrics = streamMetrics(true);
+
+        StepVerifier.create(Flux.<Long>never().transform(streamMetrics.flux("fluxinfinitestream")))
+                .expectSubscription()
+                .then(() -> Assertions.assertEquals(1, active("fluxinfinitestream")))
+                .thenCancel()
+                .verify();
+
+        Assertions.assertEquals(0, active("fluxinfinitestream"));
+        Assertions.assertEquals(1, counter("learnreactivespring.stream.terminations", "endpoint", "fluxinfinitestream", "signal", "cancel"));
+    }
+
+    @Test
+    public void failedMono() {
+        StreamMetrics streamMetrics = streamMetrics(true);
+
+        StepVerifier.create(Mono.error(new RuntimeException("Exception Occurred")).transform(streamMetrics.mono("mono")))
+                .expectError(RuntimeException.class)
+                .verify();
+
+        Assertions.assertEquals(1, counter("learnreactivespring.stream.terminations", "endpoint", "mono", "signal", "error"));
+    }
+
+    @Test
+    public void disabled_returnsThePipelineUntouched() {
+        Flux<Integer> flux = Flux.just(1, 2, 3);
+
+        Assertions.assertSame(flux, flux.transform(streamMetrics(false).flux("flux")));
+        Assertions.assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker() {
+        OutboundProperties.Breaker properties = new OutboundProperties.Breaker();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setOpenDuration(Duration.ofSeconds(1));
+        properties.setHalfOpenCalls(2);
+        return new CircuitBreaker(properties, now::get);
+    }
+
+    @Test
+    public void opensAtTheFailureRate_onceMinimumCallsAreKnown() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(), "only 3 calls known");
+        circuitBreaker.onSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState(), "3 failures out of 4");
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void onlyTheLastWindowOfCallsCounts() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+        //S S S F F, then 7 S: the 2 early failures are still in the window of 10
+        for (String outcome : "SSSFFSSSSSSS".split("")) {
+            if (outcome.equals("F")) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        }
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(), "4 failures in the last 10");
+        circuitBreaker.onFailure();
+        //7 failures out of 17 calls overall (41%), but 5 out of the last 10
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpen_afterOpenDuration_closesWhenAllTrialsSucceed() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure();
+        }
+
+        now.set(Duration.ofMillis(999).toNanos());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+        now.set(Duration.ofSeconds(1).toNanos());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        Assertions.assertFalse(circuitBreaker.tryAcquire(), "only 2 trial calls");
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.onCancel();      //a cancelled trial gives its permit back
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        //closing starts a new window, with the 4 failures from before this would be 5 out of 8
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpen_oneFailedTrialOpensItAgain() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure();
+        }
+        now.set(Duration.ofSeconds(1).toNanos());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onFailure();
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire(), "for another open duration");
+        now.set(Duration.ofSeconds(2).toNanos());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+    }
+}
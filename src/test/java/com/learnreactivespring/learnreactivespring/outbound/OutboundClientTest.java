@@ -0,0 +1,218 @@
+package com.learnreactivespring.learnreactivespring.outbound;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+//Against a local stub server which answers with injected latency / status codes
+public class OutboundClientTest {
+
+    private static DisposableServer stub;
+    private static final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboundClients outboundClients;
+
+    @BeforeAll
+    public static void startStub() {
+        stub = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/fast", (request, response) -> response.sendString(Mono.just("fast")))
+                        //  /slow/{millis}: answers after that long
+                        .get("/slow/{millis}", (request, response) -> response.sendString(
+                                Mono.delay(Duration.ofMillis(Long.parseLong(request.param("millis")))).thenReturn("slow")))
+                        //  /first-slow/{key}: the first request of every key takes 1s, the next ones are immediate
+                        .get("/first-slow/{key}", (request, response) -> {
+                            int count = requests.computeIfAbsent(request.uri(), uri -> new AtomicInteger()).incrementAndGet();
+                            return response.sendString(Mono.just(count == 1 ? "slow" : "fast")
+                                    .delayElement(count == 1 ? Duration.ofSeconds(1) : Duration.ZERO));
+                        })
+                        //  /status/{code}: answers with that status
+                        .get("/status/{code}", (request, response) -> {
+                            requests.computeIfAbsent(request.uri(), uri -> new AtomicInteger()).incrementAndGet();
+                            return response.status(Integer.parseInt(request.param("code"))).sendString(Mono.just("status"));
+                        }))
+                .bindNow();
+    }
+
+    @AfterAll
+    public static void stopStub() {
+        stub.disposeNow();
+    }
+
+    @AfterEach
+    public void disposePool() {
+        if (outboundClients != null) {
+            outboundClients.destroy();
+        }
+    }
+
+    private OutboundClient stubClient(Consumer<OutboundProperties> customizer) {
+        OutboundProperties properties = new OutboundProperties();
+        OutboundProperties.Service service = new OutboundProperties.Service();
+        service.setBaseUrl("http://localhost:" + stub.port());
+        properties.getServices().put("stub", service);
+        customizer.accept(properties);
+        outboundClients = new OutboundClients(properties, WebClient.builder(),
+                new TimerSchedulers(new TimerSchedulerProperties()),
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+        return outboundClients.client("stub");
+    }
+
+    private static int requestsTo(String uri) {
+        return requests.getOrDefault(uri, new AtomicInteger()).get();
+    }
+
+    @Test
+    public void call_failsAtItsDeadline() {
+        OutboundClient client = stubClient(properties -> { });
+
+        Duration elapsed = StepVerifier.create(client.call(
+                        webClient -> webClient.get().uri("/slow/2000").retrieve().bodyToMono(String.class),
+                        true, Duration.ofMillis(200)))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertTrue(elapsed.compareTo(Duration.ofSeconds(1)) < 0, elapsed.toString());
+    }
+
+    @Test
+    public void slowCall_isHedgedOnceTheP95IsKnown() {
+        OutboundClient client = stubClient(properties -> properties.getServices().get("stub").getHedging().setWindow(20));
+        for (int i = 0; i < 20; i++) {
+            client.get("/fast", String.class).block(Duration.ofSeconds(5));
+        }
+
+        Duration elapsed = StepVerifier.create(client.get("/first-slow/hedged", String.class))
+                .expectNext("fast")     //the hedge, sent after the p95 of /fast, answers first
+                .verifyComplete();
+
+        Assertions.assertTrue(elapsed.compareTo(Duration.ofMillis(500)) < 0, elapsed.toString());
+        Assertions.assertEquals(2, requestsTo("/first-slow/hedged"));
+        Assertions.assertEquals(1, meterRegistry.counter("learnreactivespring.outbound.hedges", "service", "stub").count());
+    }
+
+    @Test
+    public void nonIdempotentCall_isNeverHedged() {
+        OutboundClient client = stubClient(properties -> properties.getServices().get("stub").getHedging().setWindow(20));
+        for (int i = 0; i < 20; i++) {
+            client.get("/fast", String.class).block(Duration.ofSeconds(5));
+        }
+
+        StepVerifier.create(client.call(webClient -> webClient.get().uri("/first-slow/once").retrieve().bodyToMono(String.class), false))
+                .expectNext("slow")
+                .verifyComplete();
+
+        Assertions.assertEquals(1, requestsTo("/first-slow/once"));
+    }
+
+    @Test
+    public void fastFailures_doNotWaitForTheHedgeDelay() {
+        OutboundClient client = stubClient(properties -> {
+            OutboundProperties.Service service = properties.getServices().get("stub");
+            service.getHedging().setWindow(20);
+            service.getHedging().setMinDelay(Duration.ofSeconds(1));   //every call below is hedged after 1s
+            service.getCircuitBreaker().setWindowSize(4);   //only the 503s below count
+            service.getCircuitBreaker().setMinimumCalls(4);
+        });
+        for (int i = 0; i < 20; i++) {
+            client.get("/fast", String.class).block(Duration.ofSeconds(5));
+        }
+
+        Duration notFound = StepVerifier.create(client.get("/status/404", String.class))
+                .expectError(WebClientResponseException.NotFound.class)
+                .verify(Duration.ofSeconds(5));
+        for (int i = 0; i < 4; i++) {
+            client.get("/status/503", String.class).onErrorResume(e -> Mono.empty()).block(Duration.ofSeconds(5));
+        }
+        Duration circuitOpen = StepVerifier.create(client.get("/fast", String.class))
+                .expectError(CircuitOpenException.class)
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertTrue(notFound.compareTo(Duration.ofMillis(500)) < 0, notFound.toString());
+        Assertions.assertTrue(circuitOpen.compareTo(Duration.ofMillis(500)) < 0, circuitOpen.toString());
+        Assertions.assertEquals(1, requestsTo("/status/404"), "not hedged");
+        Assertions.assertEquals(0, meterRegistry.counter("learnreactivespring.outbound.hedges", "service", "stub").count());
+    }
+
+    @Test
+    public void failingService_opensTheCircuit_thenFailsFast_untilATrialSucceeds() throws InterruptedException {
+        OutboundClient client = stubClient(properties -> {
+            OutboundProperties.Breaker breaker = properties.getServices().get("stub").getCircuitBreaker();
+            breaker.setMinimumCalls(4);
+            breaker.setOpenDuration(Duration.ofMillis(200));
+            breaker.setHalfOpenCalls(1);
+        });
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(client.get("/status/404", String.class))
+                    .expectError(WebClientResponseException.NotFound.class)
+                    .verify(Duration.ofSeconds(5));
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState(), "a 404 is an answer");
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(client.get("/status/500", String.class))
+                    .expectError(WebClientResponseException.InternalServerError.class)
+                    .verify(Duration.ofSeconds(5));
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+        StepVerifier.create(client.get("/status/500", String.class))
+                .expectError(CircuitOpenException.class)
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertEquals(4, requestsTo("/status/500"), "refused without reaching the service");
+
+        Thread.sleep(250);
+        StepVerifier.create(client.get("/fast", String.class))
+                .expectNext("fast")
+                .verifyComplete();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState());
+    }
+
+    @Test
+    public void pool_failsAcquiresOverThePendingLimit() {
+        OutboundClient client = stubClient(properties -> {
+            properties.getPool().setMaxConnections(1);
+            properties.getPool().setPendingAcquireMaxCount(1);
+            properties.getServices().get("stub").getHedging().setEnabled(false);
+        });
+
+        //one on the connection, one waiting for it, the third one has no room
+        List<Signal<String>> results = Flux.range(0, 3)
+                .flatMap(i -> client.get("/slow/300", String.class).materialize())
+                .filter(signal -> !signal.isOnComplete())
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(2, results.stream().filter(Signal::isOnNext).count(), results.toString());
+        Throwable rejected = results.stream().filter(Signal::isOnError).findFirst().get().getThrowable();
+        Assertions.assertTrue(rejected instanceof WebClientRequestException, rejected.toString());
+        Assertions.assertEquals("PoolAcquirePendingLimitException", rejected.getCause().getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,100 @@
+package com.learnreactivespring.learnreactivespring.parallel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ParallelStageTest {
+
+    private final ParallelStage parallelStage = parallelStage(4);
+
+    private static ParallelStage parallelStage(int rails) {
+        ParallelStageProperties properties = new ParallelStageProperties();
+        properties.setRails(rails);
+        properties.setPrefetch(4);
+        return new ParallelStage(properties);
+    }
+
+    //the early elements are the slow ones, so they finish after the ones on the other rails
+    private static String slowUpperCase(int i) {
+        LockSupport.parkNanos((20 - i % 20) * 100_000L);
+        return "element-" + i;
+    }
+
+    @AfterEach
+    public void dispose() {
+        parallelStage.destroy();
+    }
+
+    @Test
+    public void ordered_keepsTheUpstreamOrder() {
+        List<String> expected = IntStream.range(0, 200).mapToObj(i -> "element-" + i).collect(Collectors.toList());
+
+        StepVerifier.create(Flux.range(0, 200).transform(parallelStage.map(ParallelStageTest::slowUpperCase, true)))
+                .expectNextSequence(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    public void unordered_emitsEveryElementOnTheStageWorkers() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<String> elements = Flux.range(0, 200)
+                .transform(parallelStage.map(i -> {
+                    threads.add(Thread.currentThread().getName());
+                    return slowUpperCase(i);
+                }, false))
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(200, Set.copyOf(elements).size());
+        Assertions.assertTrue(threads.stream().allMatch(thread -> thread.startsWith("parallel-stage")), threads.toString());
+        Assertions.assertTrue(threads.size() > 1, "ran on " + threads);
+    }
+
+    @Test
+    public void ordered_errorComesAfterTheElementsBeforeIt() {
+        StepVerifier.create(Flux.range(0, 200).transform(parallelStage.map(i -> {
+                    if (i == 50) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return i;
+                }, true)))
+                .expectNextSequence(IntStream.range(0, 50).boxed().collect(Collectors.toList()))   //the ones before it
+                .expectErrorMessage("boom")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void unordered_errorCancelsTheRails() {
+        StepVerifier.create(Flux.range(0, 200).transform(parallelStage.map(i -> {
+                    if (i == 50) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return i;
+                }, false)))
+                .thenConsumeWhile(i -> true)
+                .expectErrorMessage("boom")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void rails_defaultToTheCores() {
+        ParallelStage defaults = new ParallelStage(new ParallelStageProperties());
+        try {
+            Assertions.assertEquals(Runtime.getRuntime().availableProcessors(), defaults.rails());
+        } finally {
+            defaults.destroy();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.learnreactivespring.learnreactivespring.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+public class RateLimitingWebFilterTest {
+
+    private final RateLimitingWebFilter webFilter = webFilter();
+
+    private static RateLimitingWebFilter webFilter() {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath("/flux");
+        route.setCapacity(2);
+        route.setRefillPerSecond(0.5);  //a token every 2s
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRoutes().add(route);
+        properties.getApiKeys().addAll(Set.of("tenant-a", "10.0.0.1"));
+        return new RateLimitingWebFilter(properties,
+                new StaticListableBeanFactory(Map.of("meterRegistry", new SimpleMeterRegistry())).getBeanProvider(MeterRegistry.class));
+    }
+
+    private MockServerWebExchange get(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        StepVerifier.create(webFilter.filter(exchange, e -> Mono.empty())).verifyComplete();
+        return exchange;
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> fromIp(String path, String ip) {
+        return MockServerHttpRequest.get(path).remoteAddress(new InetSocketAddress(ip, 40000));
+    }
+
+    @AfterEach
+    public void destroy() {
+        webFilter.destroy();
+    }
+
+    @Test
+    public void overTheLimit_getsA429WithRateLimitHeaders() {
+        MockServerWebExchange first = get(fromIp("/flux", "10.0.0.1"));
+        Assertions.assertNull(first.getResponse().getStatusCode());
+        Assertions.assertEquals("2", first.getResponse().getHeaders().getFirst(RateLimitingWebFilter.LIMIT_HEADER));
+        Assertions.assertEquals("1", first.getResponse().getHeaders().getFirst(RateLimitingWebFilter.REMAINING_HEADER));
+        get(fromIp("/flux", "10.0.0.1"));
+
+        MockServerWebExchange third = MockServerWebExchange.from(fromIp("/flux", "10.0.0.1"));
+        StepVerifier.create(webFilter.filter(third, exchange -> Mono.error(new AssertionError("must not reach the handler"))))
+                .verifyComplete();
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, third.getResponse().getStatusCode());
+        Assertions.assertEquals("0", third.getResponse().getHeaders().getFirst(RateLimitingWebFilter.REMAINING_HEADER));
+        Assertions.assertEquals("2", third.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void clients_areLimitedSeparately_byApiKeyOrElseByIp() {
+        get(fromIp("/flux", "10.0.0.1"));
+        get(fromIp("/flux", "10.0.0.1"));
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, get(fromIp("/flux", "10.0.0.1")).getResponse().getStatusCode());
+
+        //same IP, but with an API key -> the bucket of the key
+        Assertions.assertNull(get(fromIp("/flux", "10.0.0.1").header("X-API-Key", "tenant-a")).getResponse().getStatusCode());
+        //an API key spelled like the IP is still another bucket
+        Assertions.assertNull(get(fromIp("/flux", "10.0.0.2").header("X-API-Key", "10.0.0.1")).getResponse().getStatusCode());
+        Assertions.assertNull(get(fromIp("/flux", "10.0.0.2")).getResponse().getStatusCode());
+    }
+
+    @Test
+    public void unknownApiKeys_areLimitedByIp() {
+        //a new made up key with every request, still the one bucket of the IP
+        get(fromIp("/flux", "10.0.0.3").header("X-API-Key", "random-1"));
+        get(fromIp("/flux", "10.0.0.3").header("X-API-Key", "random-2"));
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                get(fromIp("/flux", "10.0.0.3").header("X-API-Key", "random-3")).getResponse().getStatusCode());
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, get(fromIp("/flux", "10.0.0.3")).getResponse().getStatusCode());
+    }
+
+    @Test
+    public void zeroIdleTimeout_isRejected() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIdleTimeout(Duration.ZERO);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RateLimitingWebFilter(properties,
+                new StaticListableBeanFactory(Map.of()).getBeanProvider(MeterRegistry.class)));
+    }
+
+    @Test
+    public void otherRoutes_areNotLimited() {
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = get(fromIp("/mono", "10.0.0.1"));
+            Assertions.assertNull(exchange.getResponse().getStatusCode());
+            Assertions.assertNull(exchange.getResponse().getHeaders().getFirst(RateLimitingWebFilter.LIMIT_HEADER));
+        }
+    }
+}
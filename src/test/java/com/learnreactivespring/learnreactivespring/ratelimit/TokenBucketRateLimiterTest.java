@@ -0,0 +1,80 @@
+package com.learnreactivespring.learnreactivespring.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstOfCapacity_thenOneTokenPerInterval() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 10, 100);  //a token every 100ms
+
+        Assertions.assertEquals(2, limiter.tryAcquire("a", 0));
+        Assertions.assertEquals(1, limiter.tryAcquire("a", 0));
+        Assertions.assertEquals(0, limiter.tryAcquire("a", 0));
+        //empty -> the next token comes in 100ms
+        Assertions.assertEquals(-SECOND / 10, limiter.tryAcquire("a", 0));
+
+        Assertions.assertEquals(-SECOND / 20, limiter.tryAcquire("a", SECOND / 20));
+        Assertions.assertEquals(0, limiter.tryAcquire("a", SECOND / 10));
+        //back to full after capacity * interval
+        Assertions.assertEquals(2, limiter.tryAcquire("a", SECOND));
+    }
+
+    @Test
+    public void keys_haveTheirOwnBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100);
+
+        Assertions.assertEquals(0, limiter.tryAcquire("a", 0));
+        Assertions.assertTrue(limiter.tryAcquire("a", 0) < 0);
+        Assertions.assertEquals(0, limiter.tryAcquire("b", 0));
+    }
+
+    @Test
+    public void concurrentRequests_neverTakeMoreThanTheCapacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1000, 1, 100);
+        AtomicInteger accepted = new AtomicInteger();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            if (limiter.tryAcquire("hot", 0) >= 0) {
+                accepted.incrementAndGet();
+            }
+        });
+
+        Assertions.assertEquals(1000, accepted.get());
+    }
+
+    @Test
+    public void evictIdle_dropsOnlyTheBucketsFullForLongEnough() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 10, 100);
+        limiter.tryAcquire("idle", 0);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("busy", 0);  //empty, full again after 1s
+        }
+
+        Assertions.assertEquals(1, limiter.evictIdle(SECOND, SECOND / 2));
+        Assertions.assertEquals(1, limiter.size());
+        Assertions.assertEquals(1, limiter.evictIdle(2 * SECOND, SECOND / 2));
+        Assertions.assertEquals(0, limiter.size());
+    }
+
+    @Test
+    public void keysOverMaxKeys_shareStripedBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 2);
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 0);
+
+        Assertions.assertEquals(1, limiter.tryAcquire("c", 0));
+        Assertions.assertEquals(0, limiter.tryAcquire("c", 0));
+        Assertions.assertTrue(limiter.tryAcquire("c", 0) < 0);
+        //another stripe, the flooding key did not drain it
+        Assertions.assertEquals(1, limiter.tryAcquire("d", 0));
+        Assertions.assertEquals(2, limiter.size());
+    }
+}
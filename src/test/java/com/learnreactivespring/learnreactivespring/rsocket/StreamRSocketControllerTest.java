@@ -0,0 +1,115 @@
+package com.learnreactivespring.learnreactivespring.rsocket;
+
+import com.learnreactivespring.learnreactivespring.batch.SubRequest;
+import com.learnreactivespring.learnreactivespring.batch.SubResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "learnreactivespring.ticker.period=20ms")
+public class StreamRSocketControllerTest {
+
+    @LocalRSocketServerPort
+    int tcpPort;
+
+    @LocalServerPort
+    int httpPort;
+
+    @Autowired
+    RSocketRequester.Builder requesterBuilder;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private RSocketRequester tcp;
+
+    @BeforeEach
+    public void connect() {
+        tcp = requesterBuilder.tcp("localhost", tcpPort);
+    }
+
+    @AfterEach
+    public void disconnect() {
+        tcp.rsocketClient().dispose();
+    }
+
+    @Test
+    public void requestResponse() {
+        StepVerifier.create(tcp.route("mono").retrieveMono(Integer.class))
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    @Test
+    public void requestStream() {
+        StepVerifier.create(tcp.route("functional-flux").retrieveFlux(Integer.class))
+                .expectNext(1, 2, 3, 4)
+                .verifyComplete();
+    }
+
+    @Test
+    public void requestStream_overWebSocket() {
+        RSocketRequester webSocket = requesterBuilder.websocket(URI.create("ws://localhost:" + httpPort + "/rsocket"));
+        try {
+            StepVerifier.create(webSocket.route("functional-mono").retrieveMono(Integer.class))
+                    .expectNext(1)
+                    .verifyComplete();
+        } finally {
+            webSocket.rsocketClient().dispose();
+        }
+    }
+
+    @Test
+    public void channel() {
+        Flux<SubRequest> subRequests = Flux.just(
+                new SubRequest("a", "/functional/mono"),
+                new SubRequest("b", "/functional/flux"));
+
+        StepVerifier.create(tcp.route("batch").data(subRequests).retrieveFlux(SubResponse.class).map(SubResponse::getId).sort())
+                .expectNext("a", "b")
+                .verifyComplete();
+    }
+
+    @Test
+    public void requestStream_serverOnlyEmitsWhatTheClientRequested() {
+        double before = elements("fluxinfinitestream");
+
+        //request(n) frames are the only demand of the server side publisher: 2 requested -> 2 emitted, while the
+        //ticker keeps ticking every 20ms
+        StepVerifier.create(tcp.route("fluxinfinitestream").retrieveFlux(Long.class), 2)
+                .expectNext(0L, 1L)
+                .then(() -> sleep(Duration.ofMillis(300)))
+                .then(() -> Assertions.assertEquals(2, elements("fluxinfinitestream") - before))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private double elements(String endpoint) {
+        Counter counter = meterRegistry.find("learnreactivespring.stream.elements").tag("endpoint", endpoint).counter();
+        return counter == null ? 0 : counter.count();   //registered with the first stream of the endpoint
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
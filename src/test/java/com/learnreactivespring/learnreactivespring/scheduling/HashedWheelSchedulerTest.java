@@ -0,0 +1,87 @@
+package com.learnreactivespring.learnreactivespring.scheduling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelSchedulerTest {
+
+    private final Scheduler scheduler = new HashedWheelScheduler(Duration.ofMillis(5), 64, Schedulers.parallel());
+
+    @AfterEach
+    public void dispose() {
+        scheduler.dispose();
+    }
+
+    @Test
+    public void delayElements_keepsOrderAndDelay() {
+        StepVerifier.create(Flux.just(1, 2, 3).delayElements(Duration.ofMillis(20), scheduler))
+                .expectNext(1, 2, 3)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void interval_firesAtAFixedRate() {
+        long start = System.nanoTime();
+
+        StepVerifier.create(Flux.interval(Duration.ofMillis(20), scheduler).take(10))
+                .expectNextCount(10)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        //fixed rate from the first deadline, the wheel ticks do not add up over the periods
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assertions.assertTrue(elapsedMillis >= 200, "elapsed " + elapsedMillis);
+        Assertions.assertTrue(elapsedMillis < 1000, "elapsed " + elapsedMillis);
+    }
+
+    @Test
+    public void disposedTimer_neverRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        Scheduler.Worker worker = scheduler.createWorker();
+
+        Disposable task = scheduler.schedule(runs::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+        worker.schedule(runs::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+        task.dispose();
+        worker.dispose();
+        Thread.sleep(100);
+
+        Assertions.assertEquals(0, runs.get());
+        Assertions.assertThrows(RuntimeException.class, () -> worker.schedule(runs::incrementAndGet, 1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void zeroDelay_doesNotWaitForATick() throws InterruptedException {
+        Scheduler slowWheel = new HashedWheelScheduler(Duration.ofSeconds(10), 64, Schedulers.parallel());
+        try {
+            CountDownLatch ran = new CountDownLatch(2);
+            slowWheel.schedule(ran::countDown, 0, TimeUnit.MILLISECONDS);
+            slowWheel.createWorker().schedule(ran::countDown, 0, TimeUnit.MILLISECONDS);
+
+            Assertions.assertTrue(ran.await(1, TimeUnit.SECONDS));
+        } finally {
+            slowWheel.dispose();
+        }
+    }
+
+    @Test
+    public void disposedScheduler_rejects() {
+        scheduler.dispose();
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> scheduler.schedule(() -> { }, 10, TimeUnit.MILLISECONDS));
+        Assertions.assertThrows(RejectedExecutionException.class, () -> scheduler.schedule(() -> { }, 0, TimeUnit.MILLISECONDS));
+        Assertions.assertThrows(RejectedExecutionException.class, () -> scheduler.schedulePeriodically(() -> { }, 10, 10, TimeUnit.MILLISECONDS));
+    }
+}
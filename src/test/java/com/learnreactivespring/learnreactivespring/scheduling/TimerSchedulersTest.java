@@ -0,0 +1,60 @@
+package com.learnreactivespring.learnreactivespring.scheduling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnreactivespring.learnreactivespring.controller.FluxAndMonoController;
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetricsProperties;
+import com.learnreactivespring.learnreactivespring.response.PreEncodedResponses;
+import com.learnreactivespring.learnreactivespring.stream.SharedTicker;
+import com.learnreactivespring.learnreactivespring.stream.TickerProperties;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracingProperties;
+import com.learnreactivespring.learnreactivespring.tracing.TracingMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+//No Spring context and no pacer thread: StepVerifier.withVirtualTime moves the clock itself, the streams only have to
+//be assembled inside its supplier
+public class TimerSchedulersTest {
+
+    private final TimerSchedulers timerSchedulers = new TimerSchedulers(new TimerSchedulerProperties());
+
+    @AfterEach
+    public void destroy() {
+        timerSchedulers.destroy();
+    }
+
+    private FluxAndMonoController controller() {
+        SignalTracingProperties tracingProperties = new SignalTracingProperties();
+        tracingProperties.setDefaultMode(TracingMode.OFF);
+        return new FluxAndMonoController(new SignalTracing(tracingProperties),
+                new SharedTicker(new TickerProperties(), timerSchedulers),
+                new StreamMetrics(new StaticListableBeanFactory(Map.of("meterRegistry", new SimpleMeterRegistry()))
+                        .getBeanProvider(MeterRegistry.class), new StreamMetricsProperties()),
+                timerSchedulers, new PreEncodedResponses(new ObjectMapper()));
+    }
+
+    @Test
+    public void controllerDelays_runOnTheVirtualClock() {
+        FluxAndMonoController controller = controller();
+
+        //4 x 2s, verified in a few real milliseconds
+        Duration elapsed = StepVerifier.withVirtualTime(controller::returnFluxStream)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(2))
+                .expectNext(1)
+                .thenAwait(Duration.ofSeconds(6))
+                .expectNext(2, 3, 4)
+                .verifyComplete();
+
+        Assertions.assertTrue(elapsed.compareTo(Duration.ofSeconds(2)) < 0, elapsed.toString());
+    }
+}
@@ -0,0 +1,62 @@
+package com.learnreactivespring.learnreactivespring.scheduling;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//@Import it into a test of the streaming endpoints and their delayElements / intervals / timeouts run on a
+//VirtualTimeScheduler instead of the real timer, moved forward by STEP every real millisecond: the 4 x 2s of
+///fluxstream take 80ms, and the test reads exactly like against the real clock (expectNext(1, 2, 3, 4),
+//expectBodyList(...).hasSize(4), the first 3 ticks of an infinite stream...).
+//The clock can not simply be moved by the test: WebFlux only commits the response, and the WebTestClient only returns
+//from exchange(), once the body emitted its first element, so the time has to pass while the test is blocked in it.
+//Timers still fire in the order of their virtual deadlines, on the pacer thread like they would on the timer's threads.
+//The pacer runs on the real clock, so this is only for the tests going through WebTestClient; a stream tested on its
+//own uses StepVerifier.withVirtualTime instead, which TimerSchedulers.timer() honours (see TimerSchedulersTest).
+@TestConfiguration
+public class VirtualTimeConfiguration {
+
+    //100x the real clock, the 100ms coalescing timeouts still fire between two 1s ticks
+    public static final Duration STEP = Duration.ofMillis(100);
+
+    @Bean
+    @Primary
+    public VirtualTimerSchedulers virtualTimerSchedulers() {
+        return new VirtualTimerSchedulers();
+    }
+
+    //TimerSchedulers with a virtual clock, everything that asks for timer() gets it
+    public static class VirtualTimerSchedulers extends TimerSchedulers {
+
+        private final VirtualTimeScheduler virtualTime = VirtualTimeScheduler.create();
+        private final ScheduledExecutorService pacer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "virtual-time-pacer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        public VirtualTimerSchedulers() {
+            super(new TimerSchedulerProperties());
+            pacer.scheduleAtFixedRate(() -> virtualTime.advanceTimeBy(STEP), 1, 1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public Scheduler timer() {
+            return virtualTime;
+        }
+
+        @Override
+        public void destroy() {
+            pacer.shutdownNow();
+            virtualTime.dispose();
+            super.destroy();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.learnreactivespring.learnreactivespring.server;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerConfig;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "learnreactivespring.netty.protocols=HTTP11,H2C",
+        "learnreactivespring.netty.max-keep-alive-requests=2"})
+public class NettyServerTuningTest {
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    public void apply_setsTheConfiguredOptions() throws Exception {
+        NettyServerProperties properties = new NettyServerProperties();
+        properties.getEventLoop().setWorkerThreads(2);
+        properties.setAllocator(NettyServerProperties.Allocator.UNPOOLED);
+        properties.setSoBacklog(2048);
+        properties.setIdleTimeout(Duration.ofSeconds(30));
+        properties.setProtocols(Arrays.asList(HttpProtocol.HTTP11, HttpProtocol.H2C));
+        NettyServerTuning tuning = new NettyServerTuning(properties);
+
+        HttpServerConfig config = tuning.apply(HttpServer.create()).configuration();
+
+        Assertions.assertSame(UnpooledByteBufAllocator.DEFAULT, config.childOptions().get(ChannelOption.ALLOCATOR));
+        Assertions.assertEquals(true, config.childOptions().get(ChannelOption.TCP_NODELAY));
+        Assertions.assertEquals(2048, config.options().get(ChannelOption.SO_BACKLOG));
+        Assertions.assertEquals(Duration.ofSeconds(30), config.idleTimeout());
+        Assertions.assertEquals(Arrays.asList(HttpProtocol.HTTP11, HttpProtocol.H2C), Arrays.asList(config.protocols()));
+        String thread = config.loopResources().onServer(config.isPreferNative()).next()
+                .submit(() -> Thread.currentThread().getName()).get();
+        Assertions.assertTrue(thread.startsWith("learnreactivespring-http"), thread);
+        tuning.destroy();
+    }
+
+    @Test
+    public void apply_keepsTheDefaultsWhenNothingIsSet() {
+        HttpServerConfig config = new NettyServerTuning(new NettyServerProperties()).apply(HttpServer.create()).configuration();
+
+        Assertions.assertNull(config.childOptions().get(ChannelOption.ALLOCATOR));
+        Assertions.assertNull(config.idleTimeout());
+        Assertions.assertEquals(Arrays.asList(HttpProtocol.HTTP11), Arrays.asList(config.protocols()));
+    }
+
+    @Test
+    public void h2c_isNegotiatedByUpgrade() throws Exception {
+        java.net.http.HttpResponse<String> response = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_2)    //Upgrade: h2c on a plain http:// URI
+                .build()
+                .send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/functional/mono"))
+                        .header("Accept", "application/json")
+                        .build(), BodyHandlers.ofString());
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(java.net.http.HttpClient.Version.HTTP_2, response.version());
+    }
+
+    @Test
+    public void keepAliveConnection_isClosedAfterTheMaxRequests() {
+        HttpClient client = HttpClient.create(ConnectionProvider.create("keep-alive-limit", 1))
+                .headers(headers -> headers.set(HttpHeaderNames.ACCEPT, "application/json"));
+
+        List<String> connectionHeaders = Flux.range(0, 3)
+                .concatMap(i -> client.get().uri("http://localhost:" + port + "/functional/mono")
+                        .responseSingle((response, body) -> body.asString()
+                                .map(ignored -> String.valueOf(response.responseHeaders().get(HttpHeaderNames.CONNECTION)))))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        //the second request on the connection is told it is the last one, the third one gets a new connection
+        Assertions.assertEquals(Arrays.asList("null", "close", "null"), connectionHeaders);
+    }
+}
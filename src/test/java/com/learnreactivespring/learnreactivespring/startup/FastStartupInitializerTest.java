@@ -0,0 +1,46 @@
+package com.learnreactivespring.learnreactivespring.startup;
+
+import com.learnreactivespring.learnreactivespring.handler.SampleHandlerFunction;
+import com.learnreactivespring.learnreactivespring.router.RouterFunctionConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles(FastStartupInitializer.PROFILE)
+public class FastStartupInitializerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    public void functionalRoutes_areServedWithoutTheScannedConfiguration() {
+        Assertions.assertEquals(0, beanFactory.getBeanNamesForType(RouterFunctionConfig.class).length);
+        Assertions.assertEquals(1, beanFactory.getBeanNamesForType(SampleHandlerFunction.class).length);
+
+        webTestClient.get().uri("/functional/mono").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Integer.class).isEqualTo(1);
+        webTestClient.get().uri("/hello").accept(MediaType.TEXT_PLAIN)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    public void onlyTheRoutesAndControllersAreEager() {
+        Assertions.assertFalse(beanFactory.getBeanDefinition("route").isLazyInit());
+        Assertions.assertFalse(beanFactory.getBeanDefinition("fluxAndMonoController").isLazyInit());
+        Assertions.assertTrue(beanFactory.getBeanDefinition("sharedTicker").isLazyInit());
+    }
+}
@@ -0,0 +1,81 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+public class FrameCoalescerTest {
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    private FrameCoalescer frameCoalescer(Duration heartbeat) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setMaxElements(3);
+        properties.setMaxDelay(Duration.ofMillis(100));
+        properties.setHeartbeat(heartbeat);
+        return new FrameCoalescer(properties, new ObjectMapper(), new TimerSchedulers(new TimerSchedulerProperties()));
+    }
+
+    private static String text(DataBuffer dataBuffer) {
+        return dataBuffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void sse_elementsWithinTheWindowAreWrittenTogether() {
+        Flux<String> frames = frameCoalescer(Duration.ofSeconds(10))
+                .coalesce(Flux.range(1, 5), FrameCoalescer.Format.SSE, bufferFactory)
+                .map(FrameCoalescerTest::text);
+
+        //5 elements -> a full batch of 3 and what is left when the source completes, in order
+        StepVerifier.create(frames)
+                .expectNext("data:1\n\ndata:2\n\ndata:3\n\n")
+                .expectNext("data:4\n\ndata:5\n\n")
+                .verifyComplete();
+    }
+
+    @Test
+    public void ndjson_partialBatchIsWrittenAfterTheMaxDelay() {
+        Flux<Integer> slowSource = Flux.just(1, 2).concatWith(Flux.just(3).delaySubscription(Duration.ofMillis(300)));
+
+        StepVerifier.create(frameCoalescer(Duration.ofSeconds(10))
+                        .coalesce(slowSource, FrameCoalescer.Format.NDJSON, bufferFactory)
+                        .map(FrameCoalescerTest::text))
+                .expectNext("1\n2\n")
+                .expectNext("3\n")
+                .verifyComplete();
+    }
+
+    @Test
+    public void idleConnection_getsHeartbeats() {
+        Flux<Integer> idleSource = Flux.just(1).concatWith(Flux.just(2).delaySubscription(Duration.ofMillis(600)));
+
+        StepVerifier.create(frameCoalescer(Duration.ofMillis(150))
+                        .coalesce(idleSource, FrameCoalescer.Format.SSE, bufferFactory)
+                        .map(FrameCoalescerTest::text))
+                .expectNext("data:1\n\n")
+                .expectNext(":heartbeat\n\n")
+                .thenConsumeWhile(frame -> frame.equals(":heartbeat\n\n"))
+                .expectNext("data:2\n\n")
+                .verifyComplete();
+    }
+
+    @Test
+    public void busyConnection_getsNoHeartbeat() {
+        Flux<String> frames = frameCoalescer(Duration.ofMillis(100))
+                .coalesce(Flux.interval(Duration.ofMillis(20)).take(20), FrameCoalescer.Format.NDJSON, bufferFactory)
+                .map(FrameCoalescerTest::text);
+
+        StepVerifier.create(frames.filter(frame -> frame.equals("\n")).count())
+                .assertNext(heartbeats -> Assertions.assertEquals(0L, heartbeats))
+                .verifyComplete();
+    }
+}
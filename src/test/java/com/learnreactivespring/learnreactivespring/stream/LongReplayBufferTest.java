@@ -0,0 +1,58 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LongReplayBufferTest {
+
+    private static List<Long> sequences(List<SequencedValue> values) {
+        return values.stream().map(SequencedValue::getSequence).collect(Collectors.toList());
+    }
+
+    @Test
+    public void range_returnsTheAppendedValuesInOrder() {
+        LongReplayBuffer buffer = new LongReplayBuffer(8, false);
+        for (long value = 100; value < 105; value++) {
+            buffer.append(value);
+        }
+
+        List<SequencedValue> range = buffer.range(1, 4);
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L), sequences(range));
+        Assertions.assertEquals(101, range.get(0).getValue());
+        Assertions.assertEquals(5, buffer.nextSequence());
+        //nothing past what was appended
+        Assertions.assertEquals(Arrays.asList(3L, 4L), sequences(buffer.range(3, Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void range_skipsWhatWasOverwritten() {
+        LongReplayBuffer buffer = new LongReplayBuffer(10, true);   //rounded down to 8
+        Assertions.assertEquals(8, buffer.capacity());
+        for (long value = 0; value < 20; value++) {
+            buffer.append(value * 10);
+        }
+
+        //12 to 19 are left, minus 12 which the next append would overwrite
+        List<SequencedValue> range = buffer.range(0, Long.MAX_VALUE);
+        Assertions.assertEquals(Arrays.asList(13L, 14L, 15L, 16L, 17L, 18L, 19L), sequences(range));
+        Assertions.assertEquals(190, range.get(range.size() - 1).getValue());
+    }
+
+    @Test
+    public void range_isEmptyWhenNothingIsLeft() {
+        LongReplayBuffer buffer = new LongReplayBuffer(4, false);
+        Assertions.assertTrue(buffer.range(0, 10).isEmpty());
+        buffer.append(1);
+        Assertions.assertTrue(buffer.range(1, 10).isEmpty());
+        Assertions.assertTrue(buffer.range(5, 2).isEmpty());
+    }
+
+    @Test
+    public void capacity_mustBePositive() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LongReplayBuffer(0, false));
+    }
+}
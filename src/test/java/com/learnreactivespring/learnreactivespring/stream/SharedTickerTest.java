@@ -0,0 +1,103 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+public class SharedTickerTest {
+
+    private SharedTicker sharedTicker(OverflowPolicy overflowPolicy) {
+        TickerProperties properties = new TickerProperties();
+        properties.setPeriod(Duration.ofMillis(10));
+        properties.setBufferSize(4);
+        properties.setOverflowPolicy(overflowPolicy);
+        return new SharedTicker(properties, new TimerSchedulers(new TimerSchedulerProperties()));
+    }
+
+    @Test
+    public void ticks_startFromZeroForEverySubscriber() {
+        SharedTicker sharedTicker = sharedTicker(OverflowPolicy.DROP_OLDEST);
+
+        //the second subscriber joins the already running interval but still counts from 0
+        Flux<Long> both = Flux.merge(
+                sharedTicker.ticks().take(5),
+                sharedTicker.ticks().delaySubscription(Duration.ofMillis(35)).take(5));
+
+        StepVerifier.create(both.filter(tick -> tick == 0))
+                .expectNext(0L, 0L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void sequencedTicks_areSharedBetweenSubscribers() {
+        SharedTicker sharedTicker = sharedTicker(OverflowPolicy.DROP_OLDEST);
+
+        StepVerifier.create(Flux.zip(sharedTicker.sequencedTicks(), sharedTicker.sequencedTicks()).take(3))
+                .expectNextMatches(pair -> pair.getT1().equals(pair.getT2()))
+                .expectNextMatches(pair -> pair.getT1().equals(pair.getT2()))
+                .expectNextMatches(pair -> pair.getT1().equals(pair.getT2()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void dropOldest_slowSubscriberSkipsAhead() {
+        StepVerifier.create(sharedTicker(OverflowPolicy.DROP_OLDEST).ticks(), 0)
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(200))  //~20 ticks while nothing is requested, only 4 fit in the buffer
+                .thenRequest(1)
+                .expectNextMatches(tick -> tick > 0)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void disconnect_slowSubscriberIsErrored() {
+        StepVerifier.create(sharedTicker(OverflowPolicy.DISCONNECT).ticks(), 0)
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(200))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(tick -> true)
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void ticksAfter_replaysTheMissedTicksThenGoesLive() throws InterruptedException {
+        SharedTicker sharedTicker = sharedTicker(OverflowPolicy.DROP_OLDEST);
+        Disposable otherClient = sharedTicker.sequencedTicks().subscribe();  //keeps the ticker running meanwhile
+
+        List<SequencedValue> firstConnection = sharedTicker.ticksAfter(-1).take(3).collectList().block();
+        long lastSequence = firstConnection.get(2).getSequence();
+        Thread.sleep(100);  //~10 ticks while disconnected
+
+        List<SequencedValue> resumed = sharedTicker.ticksAfter(lastSequence).take(20).collectList().block();
+        otherClient.dispose();
+
+        //the missed ticks and the live ones after them, none lost and none twice
+        for (int i = 0; i < resumed.size(); i++) {
+            Assertions.assertEquals(lastSequence + 1 + i, resumed.get(i).getSequence());
+            Assertions.assertEquals(resumed.get(i).getSequence(), resumed.get(i).getValue());
+        }
+    }
+
+    @Test
+    public void ticksAfter_withoutOrWithAnUnknownIdStartsLive() throws InterruptedException {
+        SharedTicker sharedTicker = sharedTicker(OverflowPolicy.DROP_OLDEST);
+        Disposable otherClient = sharedTicker.sequencedTicks().subscribe();
+        Thread.sleep(100);
+
+        //nothing replayed from 0, and an id from e.g. before a restart does not stall the stream
+        StepVerifier.create(Flux.concat(sharedTicker.ticksAfter(-1).take(1), sharedTicker.ticksAfter(1_000_000).take(1)))
+                .expectNextMatches(tick -> tick.getSequence() > 5)
+                .expectNextMatches(tick -> tick.getSequence() > 5 && tick.getSequence() < 1_000_000)
+                .verifyComplete();
+        otherClient.dispose();
+    }
+}
@@ -0,0 +1,122 @@
+package com.learnreactivespring.learnreactivespring.stream;
+
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+public class WindowAggregatorTest {
+
+    @Test
+    public void countWindows_summarizeTheirElements() {
+        WindowAggregator aggregator = new WindowAggregator(new TimerSchedulers(new TimerSchedulerProperties()));
+
+        StepVerifier.create(aggregator.aggregate(Flux.range(1, 250).map(i -> (long) i), 100, null))
+                .assertNext(window -> {
+                    Assertions.assertEquals(100, window.getCount());
+                    Assertions.assertEquals(5050, window.getSum());
+                    Assertions.assertEquals(1, window.getMin());
+                    Assertions.assertEquals(100, window.getMax());
+                    Assertions.assertEquals(50.5, window.getMean());
+                    assertClose(50, window.getP50());
+                    assertClose(90, window.getP90());
+                    assertClose(99, window.getP99());
+                })
+                .assertNext(window -> Assertions.assertEquals(101, window.getMin()))
+                .assertNext(window -> {
+                    Assertions.assertEquals(50, window.getCount());     //what is left when the source completes
+                    Assertions.assertEquals(250, window.getMax());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void timeWindows_emitEmptySummariesToo() {
+        StepVerifier.withVirtualTime(() -> new WindowAggregator(new TimerSchedulers(new TimerSchedulerProperties()))
+                        .aggregate(Flux.just(3L, 4L).concatWith(Flux.just(5L).delaySubscription(Duration.ofSeconds(25))),
+                                null, Duration.ofSeconds(10)))
+                .thenAwait(Duration.ofSeconds(10))
+                .assertNext(window -> Assertions.assertEquals(7, window.getSum()))
+                .thenAwait(Duration.ofSeconds(10))
+                .assertNext(window -> {
+                    Assertions.assertEquals(0, window.getCount());
+                    Assertions.assertNull(window.getMin());
+                    Assertions.assertNull(window.getP99());
+                })
+                .thenAwait(Duration.ofSeconds(5))
+                .assertNext(window -> Assertions.assertEquals(5, window.getSum()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void sizeAndDuration_closeOnWhicheverComesFirst() {
+        StepVerifier.withVirtualTime(() -> new WindowAggregator(new TimerSchedulers(new TimerSchedulerProperties()))
+                        .aggregate(Flux.interval(Duration.ofSeconds(1)).take(5), 2, Duration.ofMillis(1500)))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNoEvent(Duration.ofMillis(400))
+                .thenAwait(Duration.ofMillis(100))
+                .assertNext(window -> Assertions.assertEquals(1, window.getCount()))   //timed out with tick 0
+                .thenAwait(Duration.ofSeconds(10))
+                .thenConsumeWhile(window -> window.getCount() <= 2)
+                .verifyComplete();
+    }
+
+    @Test
+    public void accumulator_exactWhileSmall_thenHistogram() {
+        WindowAccumulator small = new WindowAccumulator();
+        for (long value = WindowAccumulator.EXACT_LIMIT; value >= 1; value--) {
+            small.add(value * 1000);
+        }
+        Assertions.assertEquals(512_000, small.summary().getP50());
+        Assertions.assertEquals(1_014_000, small.summary().getP99());
+
+        WindowAccumulator large = new WindowAccumulator();
+        for (long value = 1; value <= 100_000; value++) {
+            large.add(value * 1000);
+        }
+        WindowSummary summary = large.summary();
+        Assertions.assertEquals(100_000, summary.getCount());
+        Assertions.assertEquals(1000, summary.getMin());
+        assertClose(50_000_000, summary.getP50());
+        assertClose(99_000_000, summary.getP99());
+    }
+
+    @Test
+    public void logHistogram_percentilesWithinOneThirtySecond() {
+        LogHistogram histogram = new LogHistogram();
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        Assertions.assertEquals(1_000_000, histogram.getCount());
+        for (double percentile : new double[]{0.01, 0.5, 0.9, 0.99, 0.999}) {
+            double expected = percentile * 1_000_000_000.0;
+            double error = Math.abs(histogram.valueAtPercentile(percentile) - expected) / expected;
+            Assertions.assertTrue(error <= 1.0 / 32, percentile + " -> " + histogram.valueAtPercentile(percentile));
+        }
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.valueAtPercentile(0.5));
+        histogram.record(7);
+        histogram.record(9);
+        Assertions.assertEquals(7, histogram.valueAtPercentile(0.5), "small values are exact");
+    }
+
+    @Test
+    public void logHistogram_bucketsCoverTheWholeLongRange() {
+        Assertions.assertEquals(0, LogHistogram.index(-5));
+        Assertions.assertEquals(15, LogHistogram.index(15));
+        Assertions.assertEquals(16, LogHistogram.index(16));
+        Assertions.assertEquals(959, LogHistogram.index(Long.MAX_VALUE));
+        for (int index = 0; index < 960; index++) {
+            Assertions.assertEquals(index, LogHistogram.index(LogHistogram.middle(index)));
+        }
+    }
+
+    private static void assertClose(long expected, long actual) {
+        Assertions.assertTrue(Math.abs(actual - expected) <= Math.max(1, expected / 32), expected + " ~ " + actual);
+    }
+}
@@ -0,0 +1,62 @@
+package com.learnreactivespring.learnreactivespring.tracing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+public class SignalTracingTest {
+
+    private SignalTracing signalTracing(TracingMode mode) {
+        SignalTracingProperties properties = new SignalTracingProperties();
+        properties.setDefaultMode(TracingMode.FULL);
+        properties.setSampleRate(2);
+        properties.getEndpoints().put("endpoint", mode);
+        return new SignalTracing(properties);
+    }
+
+    @Test
+    public void off_returnsThePipelineUntouched() {
+        //no operator is added, so there is nothing left to cost anything on the hot path
+        Flux<Integer> flux = Flux.just(1, 2, 3);
+        Mono<Integer> mono = Mono.just(1);
+        SignalTracing signalTracing = signalTracing(TracingMode.OFF);
+
+        Assertions.assertSame(flux, flux.transform(signalTracing.flux("endpoint")));
+        Assertions.assertSame(mono, mono.transform(signalTracing.mono("endpoint")));
+    }
+
+    @Test
+    public void unknownEndpoint_usesTheDefaultMode() {
+        Assertions.assertEquals(TracingMode.FULL, signalTracing(TracingMode.OFF).mode("other"));
+    }
+
+    @Test
+    public void sampled_logsOneSubscriptionInN_andKeepsTheSignals() {
+        //the log operator takes its Logger when it is assembled, i.e. inside the defer of a sampled subscription
+        Logger logger = Mockito.mock(Logger.class);
+        Mockito.when(logger.isInfoEnabled()).thenReturn(true);
+        Loggers.useCustomLoggers(name -> logger);
+        try {
+            SignalTracing signalTracing = signalTracing(TracingMode.SAMPLED);
+            Flux<Integer> flux = Flux.just(1, 2, 3).transform(signalTracing.flux("endpoint"));
+
+            //sample rate 2: the first and the third subscription are logged, the second one is not
+            StepVerifier.create(flux).expectNext(1, 2, 3).verifyComplete();
+            Mockito.verify(logger, Mockito.atLeastOnce()).info(Mockito.anyString(), Mockito.<Object[]>any());
+            Mockito.clearInvocations(logger);
+
+            StepVerifier.create(flux).expectNext(1, 2, 3).verifyComplete();
+            Mockito.verifyNoInteractions(logger);
+
+            StepVerifier.create(flux).expectNext(1, 2, 3).verifyComplete();
+            Mockito.verify(logger, Mockito.atLeastOnce()).info(Mockito.anyString(), Mockito.<Object[]>any());
+        } finally {
+            Loggers.resetLoggerFactory();
+        }
+    }
+}
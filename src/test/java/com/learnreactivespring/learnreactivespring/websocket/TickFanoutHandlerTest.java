@@ -0,0 +1,116 @@
+package com.learnreactivespring.learnreactivespring.websocket;
+
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetrics;
+import com.learnreactivespring.learnreactivespring.metrics.StreamMetricsProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulerProperties;
+import com.learnreactivespring.learnreactivespring.scheduling.TimerSchedulers;
+import com.learnreactivespring.learnreactivespring.stream.OverflowPolicy;
+import com.learnreactivespring.learnreactivespring.stream.SharedTicker;
+import com.learnreactivespring.learnreactivespring.stream.TickerProperties;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracing;
+import com.learnreactivespring.learnreactivespring.tracing.SignalTracingProperties;
+import com.learnreactivespring.learnreactivespring.tracing.TracingMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"learnreactivespring.ticker.period=20ms", "learnreactivespring.websocket.ticks.buffer-size=16"})
+public class TickFanoutHandlerTest {
+
+    @LocalServerPort
+    int port;
+
+    private static TickFanoutHandler handler(OverflowPolicy overflowPolicy) {
+        TickerProperties tickerProperties = new TickerProperties();
+        tickerProperties.setPeriod(Duration.ofMillis(5));
+        TickFanoutProperties properties = new TickFanoutProperties();
+        properties.setBufferSize(2);
+        properties.setOverflowPolicy(overflowPolicy);
+        SignalTracingProperties tracingProperties = new SignalTracingProperties();
+        tracingProperties.setDefaultMode(TracingMode.OFF);
+        return new TickFanoutHandler(properties,
+                new SharedTicker(tickerProperties, new TimerSchedulers(new TimerSchedulerProperties())),
+                new SignalTracing(tracingProperties),
+                new StreamMetrics(new StaticListableBeanFactory(Map.of("meterRegistry", new SimpleMeterRegistry()))
+                        .getBeanProvider(MeterRegistry.class), new StreamMetricsProperties()));
+    }
+
+    //a client which takes the first frame and then never reads again, its connection stays unwritable
+    private static WebSocketSession stalledSession(List<CloseStatus> closed) {
+        WebSocketSession session = Mockito.mock(WebSocketSession.class);
+        Mockito.when(session.bufferFactory()).thenReturn(new DefaultDataBufferFactory());
+        Mockito.when(session.receive()).thenReturn(Flux.never());
+        Mockito.when(session.send(Mockito.any())).thenAnswer(invocation ->
+                Flux.from(invocation.<Publisher<WebSocketMessage>>getArgument(0)).concatMap(message -> Mono.never(), 1).then());
+        Mockito.when(session.close(Mockito.any())).thenAnswer(invocation -> {
+            closed.add(invocation.getArgument(0));
+            return Mono.empty();
+        });
+        return session;
+    }
+
+    @Test
+    public void disconnect_closesTheSlowSessionWithTryAgainLater() {
+        List<CloseStatus> closed = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(handler(OverflowPolicy.DISCONNECT).handle(stalledSession(closed)))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertEquals(List.of(TickFanoutHandler.SLOW_CONSUMER), closed);
+        Assertions.assertEquals(1013, closed.get(0).getCode());
+    }
+
+    @Test
+    public void dropOldest_keepsTheSlowSessionOpen() {
+        List<CloseStatus> closed = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(handler(OverflowPolicy.DROP_OLDEST).handle(stalledSession(closed)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(200))  //~40 ticks for a buffer of 2
+                .thenCancel()
+                .verify();
+        Assertions.assertTrue(closed.isEmpty());
+    }
+
+    @Test
+    public void sessions_receiveTheSameTicks() {
+        Set<String> first = ConcurrentHashMap.newKeySet();
+        Set<String> second = ConcurrentHashMap.newKeySet();
+        ReactorNettyWebSocketClient client = new ReactorNettyWebSocketClient();
+        URI uri = URI.create("ws://localhost:" + port + "/ws/ticks");
+
+        Mono.when(
+                client.execute(uri, session -> session.receive().take(10)
+                        .doOnNext(message -> first.add(message.getPayloadAsText())).then()),
+                client.execute(uri, session -> session.receive().take(10)
+                        .doOnNext(message -> second.add(message.getPayloadAsText())).then()))
+                .block(Duration.ofSeconds(10));
+
+        //both were connected at about the same time, so they got mostly the same tick numbers
+        first.retainAll(second);
+        Assertions.assertTrue(first.size() >= 5, "ticks seen by both sessions: " + first);
+    }
+}
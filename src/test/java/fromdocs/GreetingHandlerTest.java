@@ -0,0 +1,64 @@
+package fromdocs;
+
+import com.learnreactivespring.learnreactivespring.LearnreactivespringApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(classes = LearnreactivespringApplication.class)  //the package is outside of the application one
+@AutoConfigureWebTestClient
+public class GreetingHandlerTest {
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Test
+    public void hello() {
+        webTestClient.get().uri("/hello")
+                .accept(MediaType.TEXT_PLAIN)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_PLAIN)
+                .expectHeader().contentLength("Hello Spring".length())
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody(String.class).isEqualTo("Hello Spring");
+    }
+
+    @Test
+    public void hello_conditionalGet() {
+        String eTag = webTestClient.get().uri("/hello")
+                .accept(MediaType.TEXT_PLAIN)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/hello")
+                .accept(MediaType.TEXT_PLAIN)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void functionalMono_conditionalGet() {
+        //cached values are pre-encoded too
+        String eTag = webTestClient.get().uri("/functional/mono")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(1)
+                .returnResult(Integer.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/functional/mono")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+}